@@ -0,0 +1,116 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import mycontroller.AIMap;
+import utilities.Coordinate;
+import world.Car;
+import world.World;
+import world.WorldSpatial;
+
+/**
+ * The AIMap queries the explorer makes every tick, and the cost of
+ * feeding it the sensor window.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AIMapBenchmark {
+
+	@Param({"32", "128", "512"})
+	public int size;
+
+	private World world;
+
+	private Car car;
+
+	/** A map that has seen every tile of the world. */
+	private AIMap fullMap;
+
+	/** Road tiles to query from, visited in turn. */
+	private Coordinate[] positions;
+
+	private int next;
+
+	@Setup
+	public void setUp() {
+		world = SyntheticMaps.world(size, 42);
+		car = world.getCar();
+
+		fullMap = new AIMap();
+		for (int y = 0; y < world.getHeight(); y++) {
+			for (int x = 0; x < world.getWidth(); x++) {
+				fullMap.visit(x, y, world.lookUp(x, y));
+			}
+		}
+
+		// Every road tile along the guaranteed corridor, then up the far side
+		positions = new Coordinate[2 * (size - 3)];
+		for (int i = 0; i < size - 3; i++) {
+			positions[i] = new Coordinate(1 + i, 1);
+			positions[size - 3 + i] = new Coordinate(size - 2, 1 + i);
+		}
+	}
+
+	private Coordinate nextPosition() {
+		Coordinate position = positions[next];
+		next = next + 1 == positions.length ? 0 : next + 1;
+		return position;
+	}
+
+	/** Updating from a window the map has already seen. */
+	@Benchmark
+	public void updateSeen(Blackhole hole) {
+		Coordinate position = nextPosition();
+		car.setX(position.x);
+		car.setY(position.y);
+		fullMap.update(car.getSensorWindow());
+		hole.consume(fullMap.getVersion());
+	}
+
+	/** Updating a new map from its first window, where every tile is new. */
+	@Benchmark
+	public AIMap updateFresh() {
+		Coordinate position = nextPosition();
+		car.setX(position.x);
+		car.setY(position.y);
+		AIMap map = new AIMap();
+		map.update(car.getSensorWindow());
+		return map;
+	}
+
+	@Benchmark
+	public void tileAtRelative(Blackhole hole) {
+		Coordinate position = nextPosition();
+		for (WorldSpatial.Direction orientation :
+			 WorldSpatial.Direction.values()) {
+			hole.consume(fullMap.tileAtRelative(position, orientation, 1, 2));
+			hole.consume(fullMap.tileAtRelative(position, orientation, -1, 0));
+		}
+	}
+
+	@Benchmark
+	public void deadEndAhead(Blackhole hole) {
+		Coordinate position = nextPosition();
+		for (WorldSpatial.Direction orientation :
+			 WorldSpatial.Direction.values()) {
+			hole.consume(fullMap.deadEndAhead(position, orientation));
+		}
+	}
+}
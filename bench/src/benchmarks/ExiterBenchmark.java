@@ -0,0 +1,82 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import mycontroller.AIMap;
+import mycontroller.ExiterStrategy;
+import mycontroller.ExiterStrategyFactory;
+import utilities.Coordinate;
+import world.World;
+
+/**
+ * Planning the exit path over a fully explored map, both from scratch
+ * and repairing the previous plan after the car has moved.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExiterBenchmark {
+
+	@Param({"32", "128", "512"})
+	public int size;
+
+	private AIMap map;
+
+	private ExiterStrategyFactory factory;
+
+	/** Road tiles along the bottom corridor to plan from, in turn. */
+	private Coordinate[] starts;
+
+	private int next;
+
+	@Setup
+	public void setUp() {
+		World world = SyntheticMaps.world(size, 42);
+		map = new AIMap();
+		for (int y = 0; y < world.getHeight(); y++) {
+			for (int x = 0; x < world.getWidth(); x++) {
+				map.visit(x, y, world.lookUp(x, y));
+			}
+		}
+
+		starts = new Coordinate[size - 3];
+		for (int i = 0; i < starts.length; i++) {
+			starts[i] = new Coordinate(1 + i, 1);
+		}
+		factory = ExiterStrategyFactory.getInstance();
+	}
+
+	private Coordinate nextStart() {
+		Coordinate start = starts[next];
+		next = next + 1 == starts.length ? 0 : next + 1;
+		return start;
+	}
+
+	/** A new planner every time, as after the trap costs change. */
+	@Benchmark
+	public ExiterStrategy planFromScratch() {
+		factory.setTrapCosts(25, 50, 5, 50);
+		return factory.getExiterStrategy(nextStart(), map);
+	}
+
+	/** The planner kept from the last call, with the car moved. */
+	@Benchmark
+	public ExiterStrategy replanAfterMoving() {
+		return factory.getExiterStrategy(nextStart(), map);
+	}
+}
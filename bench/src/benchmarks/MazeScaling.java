@@ -0,0 +1,128 @@
+package benchmarks;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+
+import com.swen30006.driving.HeadlessSimulation;
+import com.swen30006.driving.SimulationResult;
+
+import controller.CarController;
+import mycontroller.AIMap;
+import mycontroller.ExiterStrategyFactory;
+import utilities.Coordinate;
+import world.MazeGenerator;
+import world.World;
+
+/**
+ * Runs a controller on generated mazes of growing size and prints how
+ * the time to escape, planning cost and heap use grow with the map.
+ * Not a JMH benchmark, since a run on a large maze is long and only
+ * worth doing once per size.
+ *
+ * Usage: MazeScaling [controller class] [sizes...]
+ */
+public class MazeScaling {
+
+	private static final int[] DEFAULT_SIZES = {64, 128, 256, 512, 1024};
+
+	/** Plans timed per size, after as many untimed ones. */
+	private static final int PLANS = 10;
+
+	public static void main(String[] args) throws Exception {
+		String controllerName = args.length > 0 ? args[0] : "mycontroller.MyAIController";
+		Class<? extends CarController> controllerClass =
+				Class.forName(controllerName).asSubclass(CarController.class);
+		int[] sizes = DEFAULT_SIZES;
+		if (args.length > 1) {
+			sizes = new int[args.length - 1];
+			for (int i = 0; i < sizes.length; i++) {
+				sizes[i] = Integer.parseInt(args[i + 1]);
+			}
+		}
+
+		System.out.println(String.format("%6s %8s %10s %10s %10s %10s %10s",
+				"size", "outcome", "sim time", "run ms", "plan ms", "heap MB", "peak MB"));
+		for (int size : sizes) {
+			World world = maze(size).generateWorld();
+			double planMillis = planMillis(world);
+
+			long heapBefore = usedHeap();
+			resetPeaks();
+			world.setController(HeadlessSimulation.createController(controllerClass, world.getCar()));
+			long start = System.nanoTime();
+			// A generous limit, the maze's corridors grow with its side
+			SimulationResult result = new HeadlessSimulation(world, HeadlessSimulation.DEFAULT_DELTA,
+					HeadlessSimulation.DEFAULT_TIME_LIMIT * Math.max(1, size / 64)).run();
+			long runMillis = (System.nanoTime() - start) / 1000000;
+			long peak = peakHeap();
+
+			System.out.println(String.format("%6d %8s %9.1fs %10d %10.2f %10.1f %10.1f",
+					size, result.getStatus(), result.getSimTime(), runMillis, planMillis,
+					heapBefore / 1e6, peak / 1e6));
+		}
+	}
+
+	private static MazeGenerator maze(int size) {
+		MazeGenerator generator = new MazeGenerator(size, size, 42);
+		generator.setCorridorWidth(2);
+		generator.setDeadEndDensity(0.5f);
+		generator.setTraps(0.02f, 1, 2, 2);
+		generator.setExitCount(1);
+		return generator;
+	}
+
+	/**
+	 * Average time to plan from the start to the exit from scratch,
+	 * with the whole maze known.
+	 */
+	private static double planMillis(World world) {
+		AIMap map = new AIMap();
+		for (int y = 0; y < world.getHeight(); y++) {
+			for (int x = 0; x < world.getWidth(); x++) {
+				map.visit(x, y, world.lookUp(x, y));
+			}
+		}
+		Coordinate start = new Coordinate(world.getCar().getTileX(), world.getCar().getTileY());
+		ExiterStrategyFactory factory = ExiterStrategyFactory.getInstance();
+
+		long elapsed = 0;
+		for (int i = 0; i < 2 * PLANS; i++) {
+			// New costs throw the last plan away
+			factory.setTrapCosts(25, 50, 5, 50);
+			long began = System.nanoTime();
+			factory.getExiterStrategy(start, map);
+			if (i >= PLANS) {
+				elapsed += System.nanoTime() - began;
+			}
+		}
+		return elapsed / 1e6 / PLANS;
+	}
+
+	private static long usedHeap() {
+		System.gc();
+		long used = 0;
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP) {
+				used += pool.getUsage().getUsed();
+			}
+		}
+		return used;
+	}
+
+	private static void resetPeaks() {
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			pool.resetPeakUsage();
+		}
+	}
+
+	private static long peakHeap() {
+		long peak = 0;
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP) {
+				peak += pool.getPeakUsage().getUsed();
+			}
+		}
+		return peak;
+	}
+}
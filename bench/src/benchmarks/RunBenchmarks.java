@@ -0,0 +1,26 @@
+package benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler, so every result comes with
+ * its allocation rate. Arguments are regular expressions selecting
+ * benchmarks, all of them if there are none.
+ */
+public class RunBenchmarks {
+
+	public static void main(String[] args) throws Exception {
+		OptionsBuilder options = new OptionsBuilder();
+		if (args.length == 0) {
+			options.include("benchmarks\\..*");
+		}
+		for (String pattern : args) {
+			options.include(pattern);
+		}
+		Options built = options.addProfiler(GCProfiler.class).build();
+		new Runner(built).run();
+	}
+}
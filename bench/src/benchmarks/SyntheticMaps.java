@@ -0,0 +1,51 @@
+package benchmarks;
+
+import java.util.Random;
+
+import world.World;
+import world.WorldBuilder;
+
+/**
+ * Builds square benchmark maps: walls around the edge, random walls and traps inside, the
+ * start in the bottom left and the exit in the top right. The bottom row and right column
+ * are always road, so the exit is always reachable.
+ */
+final class SyntheticMaps {
+
+	private SyntheticMaps() {
+	}
+
+	/**
+	 * Returns a new world on a size by size map, the same map for the same size and seed.
+	 */
+	static World world(int size, long seed) {
+		Random random = new Random(seed);
+		WorldBuilder builder = new WorldBuilder(size, size);
+
+		// Rolled from the top row down, as the maps were first generated
+		for (int row = 0; row < size; row++) {
+			for (int x = 0; x < size; x++) {
+				int y = size - 1 - row;
+				boolean edge = x == 0 || y == 0 || x == size - 1 || y == size - 1;
+				boolean corridor = y == 1 || x == size - 2;
+				if (edge) {
+					builder.wall(x, y);
+				} else if (!corridor) {
+					double roll = random.nextDouble();
+					if (roll < 0.15) {
+						builder.wall(x, y);
+					} else if (roll < 0.17) {
+						builder.trap(x, y, "LavaTrap");
+					} else if (roll < 0.19) {
+						builder.trap(x, y, "MudTrap");
+					} else if (roll < 0.21) {
+						builder.trap(x, y, "GrassTrap");
+					}
+				}
+			}
+		}
+		builder.start(1, 1);
+		builder.exit(size - 2, size - 2);
+		return builder.build();
+	}
+}
@@ -0,0 +1,129 @@
+package benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.badlogic.gdx.math.Vector2;
+
+import tiles.MapTile;
+import utilities.PeekTuple;
+import world.Car;
+import world.TrajectoryPredictor;
+import world.World;
+import world.WorldSpatial;
+
+/**
+ * The world queries the physics and the controllers make: tile lookups,
+ * the car's view and predicting turns, one with peek, cached or not, or
+ * a batch of candidates with the TrajectoryPredictor.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WorldBenchmark {
+
+	/** How many lookups make up one lookUp operation. */
+	private static final int LOOKUPS = 1024;
+
+	@Param({"32", "128", "512"})
+	public int size;
+
+	private World world;
+
+	private Car car;
+
+	/** Random points on the map, as the car's float position would be. */
+	private float[] xs;
+	private float[] ys;
+
+	private Vector2 velocity;
+
+	/** Candidate turns for predictAll: every speed, degree and direction. */
+	private static final int CANDIDATES = 16;
+	private float[] candidateVelocityX;
+	private float[] candidateVelocityY;
+	private float[] candidateDegrees;
+	private WorldSpatial.RelativeDirection[] candidateTurns;
+	private TrajectoryPredictor.Prediction[] predictions;
+
+	@Setup
+	public void setUp() {
+		world = SyntheticMaps.world(size, 42);
+		car = world.getCar();
+
+		Random random = new Random(7);
+		xs = new float[LOOKUPS];
+		ys = new float[LOOKUPS];
+		for (int i = 0; i < LOOKUPS; i++) {
+			xs[i] = random.nextFloat() * size;
+			ys[i] = random.nextFloat() * size;
+		}
+
+		// Heading east along the bottom corridor at a controller's speed
+		car.setX(size / 2);
+		car.setY(1);
+		velocity = new Vector2(2, 0);
+
+		candidateVelocityX = new float[CANDIDATES];
+		candidateVelocityY = new float[CANDIDATES];
+		candidateDegrees = new float[CANDIDATES];
+		candidateTurns = new WorldSpatial.RelativeDirection[CANDIDATES];
+		predictions = new TrajectoryPredictor.Prediction[CANDIDATES];
+		for (int i = 0; i < CANDIDATES; i++) {
+			candidateVelocityX[i] = 0.5f + (i % 4);
+			candidateDegrees[i] = i / 4 % 2 == 0 ? WorldSpatial.NORTH_DEGREE : WorldSpatial.SOUTH_DEGREE;
+			candidateTurns[i] = i / 8 == 0 ? WorldSpatial.RelativeDirection.LEFT : WorldSpatial.RelativeDirection.RIGHT;
+			predictions[i] = new TrajectoryPredictor.Prediction();
+		}
+	}
+
+	@Benchmark
+	public void lookUp(Blackhole hole) {
+		for (int i = 0; i < LOOKUPS; i++) {
+			MapTile tile = world.lookUp(xs[i], ys[i]);
+			hole.consume(tile);
+		}
+	}
+
+	@Benchmark
+	public Object getView() {
+		return car.getView();
+	}
+
+	@Benchmark
+	public PeekTuple peek() {
+		return car.peek(velocity, WorldSpatial.NORTH_DEGREE,
+						WorldSpatial.RelativeDirection.LEFT, 1 / 60f);
+	}
+
+	/** The same peek again, as a controller cruising along would, from the cache. */
+	@Benchmark
+	public PeekTuple cachedPeek() {
+		return car.getPeekCache().peek(velocity.x, velocity.y, WorldSpatial.NORTH_DEGREE,
+						WorldSpatial.RelativeDirection.LEFT, 1 / 60f);
+	}
+
+	/** Every candidate turn from the car's current state, in one call. */
+	@Benchmark
+	public TrajectoryPredictor.Prediction[] predictAll() {
+		car.getTrajectoryPredictor().predictAll(CANDIDATES, candidateVelocityX, candidateVelocityY,
+				candidateDegrees, candidateTurns, 1 / 60f, predictions);
+		return predictions;
+	}
+}
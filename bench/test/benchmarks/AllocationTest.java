@@ -0,0 +1,82 @@
+package benchmarks;
+
+import static org.junit.Assert.assertEquals;
+
+import java.lang.management.ManagementFactory;
+
+import org.junit.Test;
+
+import com.swen30006.driving.HeadlessSimulation;
+
+import controller.AIController;
+import controller.CarController;
+import mycontroller.MyAIController;
+import world.Car;
+import world.World;
+import world.WorldBuilder;
+
+/**
+ * Checks that the simulation loop, the car's physics and a controller's
+ * update included, allocates nothing once it has warmed up. The car
+ * drives laps of a loop with no exit, so after the first lap every
+ * tile is known and every tick should be the same work as the last.
+ */
+public class AllocationTest {
+
+	private static final int WARM_UP_TICKS = 100000;
+	private static final int TICKS = 100000;
+
+	/** A corridor around a block of wall, with no way out. */
+	private static final String[] LOOP = {
+		"##################",
+		"#................#",
+		"#................#",
+		"#..############..#",
+		"#..############..#",
+		"#..############..#",
+		"#..############..#",
+		"#................#",
+		"#S...............#",
+		"##################",
+	};
+
+	@Test
+	public void myAIControllerAllocatesNothingInSteadyState() throws Exception {
+		assertEquals(0, allocatedInSteadyState(MyAIController.class));
+	}
+
+	@Test
+	public void aiControllerAllocatesNothingInSteadyState() throws Exception {
+		assertEquals(0, allocatedInSteadyState(AIController.class));
+	}
+
+	/**
+	 * The bytes the thread allocates over TICKS ticks of the loop, after
+	 * WARM_UP_TICKS ticks for the laps and JIT compilation to settle
+	 */
+	private static long allocatedInSteadyState(Class<? extends CarController> controllerClass)
+			throws Exception {
+		com.sun.management.ThreadMXBean threads =
+				(com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long thread = Thread.currentThread().getId();
+
+		World world = WorldBuilder.fromRows(LOOP).build();
+		Car car = world.getCar();
+		world.setController(HeadlessSimulation.createController(controllerClass, car));
+
+		step(world, WARM_UP_TICKS);
+		assertEquals("The car stopped driving during warm-up", Car.Status.DRIVING, car.getStatus());
+
+		long before = threads.getThreadAllocatedBytes(thread);
+		step(world, TICKS);
+		long allocated = threads.getThreadAllocatedBytes(thread) - before;
+		assertEquals("The car stopped driving", Car.Status.DRIVING, car.getStatus());
+		return allocated;
+	}
+
+	private static void step(World world, int ticks) {
+		for (int i = 0; i < ticks && world.getCar().getStatus() == Car.Status.DRIVING; i++) {
+			world.update(HeadlessSimulation.DEFAULT_DELTA);
+		}
+	}
+}
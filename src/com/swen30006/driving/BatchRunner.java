@@ -0,0 +1,241 @@
+package com.swen30006.driving;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import controller.CarController;
+import world.CompiledMap;
+
+/**
+ * Runs every combination of a set of maps and controllers headless, each in its own world,
+ * spread over a work-stealing pool, and summarises how each controller did.
+ */
+public class BatchRunner {
+	
+	/**
+	 * One map and controller combination and how it went. Exactly one of the result and the
+	 * error is set.
+	 */
+	public static class Run {
+		private final String map;
+		private final Class<? extends CarController> controller;
+		private final SimulationResult result;
+		private final Throwable error;
+		
+		Run(String map, Class<? extends CarController> controller, SimulationResult result, Throwable error){
+			this.map = map;
+			this.controller = controller;
+			this.result = result;
+			this.error = error;
+		}
+		
+		public String getMap(){
+			return map;
+		}
+		
+		public Class<? extends CarController> getController(){
+			return controller;
+		}
+		
+		public SimulationResult getResult(){
+			return result;
+		}
+		
+		public Throwable getError(){
+			return error;
+		}
+	}
+	
+	private final List<String> maps;
+	private final List<Class<? extends CarController>> controllers;
+	private final float delta;
+	private final float timeLimit;
+	private final int threads;
+	
+	public BatchRunner(List<String> maps, List<Class<? extends CarController>> controllers,
+			float delta, float timeLimit, int threads){
+		this.maps = new ArrayList<String>(maps);
+		this.controllers = new ArrayList<Class<? extends CarController>>(controllers);
+		this.delta = delta;
+		this.timeLimit = timeLimit;
+		this.threads = threads;
+	}
+	
+	/**
+	 * Runs every combination, returning them in map then controller order.
+	 */
+	public List<Run> run() throws InterruptedException {
+		ExecutorService pool = Executors.newWorkStealingPool(threads);
+		try {
+			List<Callable<Run>> tasks = new ArrayList<Callable<Run>>();
+			for(String map : maps){
+				for(Class<? extends CarController> controller : controllers){
+					tasks.add(task(map, controller));
+				}
+			}
+			
+			List<Run> runs = new ArrayList<Run>();
+			for(Future<Run> future : pool.invokeAll(tasks)){
+				try {
+					runs.add(future.get());
+				} catch (ExecutionException e) {
+					// Tasks catch their own failures, so this can't happen
+					throw new IllegalStateException(e.getCause());
+				}
+			}
+			return runs;
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+	
+	private Callable<Run> task(final String map, final Class<? extends CarController> controller){
+		return new Callable<Run>(){
+			@Override
+			public Run call(){
+				try {
+					SimulationResult result = HeadlessSimulation.run(map, controller, delta, timeLimit);
+					return new Run(map, controller, result, null);
+				} catch (Throwable e) {
+					// One broken map or controller shouldn't end the batch
+					return new Run(map, controller, null, e);
+				}
+			}
+		};
+	}
+	
+	/**
+	 * Formats a table with a row per run and a total per controller: escape rate, mean
+	 * simulated time to exit and mean remaining health of the runs that escaped, and mean
+	 * ticks of every run.
+	 */
+	public static String summarise(List<Run> runs){
+		StringBuilder table = new StringBuilder();
+		String format = "%-32s %-32s %8s %10s %10s %10s%n";
+		table.append(String.format(format, "Map", "Controller", "Escaped", "Exit time", "Health", "Ticks"));
+		
+		Map<Class<? extends CarController>,List<Run>> byController = new LinkedHashMap<Class<? extends CarController>,List<Run>>();
+		for(Run run : runs){
+			List<Run> controllerRuns = byController.get(run.getController());
+			if(controllerRuns == null){
+				controllerRuns = new ArrayList<Run>();
+				byController.put(run.getController(), controllerRuns);
+			}
+			controllerRuns.add(run);
+			
+			String mapName = new File(run.getMap()).getName();
+			String controllerName = run.getController().getSimpleName();
+			if(run.getError() != null){
+				table.append(String.format("%-32s %-32s ERROR: %s%n", mapName, controllerName, run.getError()));
+			}
+			else{
+				table.append(row(format, mapName, controllerName, Arrays.asList(run)));
+			}
+		}
+		
+		table.append(String.format("%n"));
+		for(Map.Entry<Class<? extends CarController>,List<Run>> entry : byController.entrySet()){
+			table.append(row(format, "All maps", entry.getKey().getSimpleName(), entry.getValue()));
+		}
+		return table.toString();
+	}
+	
+	private static String row(String format, String mapName, String controllerName, List<Run> runs){
+		int completed = 0;
+		int escaped = 0;
+		double exitTime = 0;
+		double health = 0;
+		double ticks = 0;
+		for(Run run : runs){
+			SimulationResult result = run.getResult();
+			if(result == null){
+				continue;
+			}
+			completed++;
+			ticks += result.getTicks();
+			if(result.escaped()){
+				escaped++;
+				exitTime += result.getSimTime();
+				health += result.getHealth();
+			}
+		}
+		
+		String escapeRate = completed == 0 ? "-" : String.format("%.0f%%", 100.0 * escaped / completed);
+		String meanExitTime = escaped == 0 ? "-" : String.format("%.2fs", exitTime / escaped);
+		String meanHealth = escaped == 0 ? "-" : String.format("%.1f", health / escaped);
+		String meanTicks = completed == 0 ? "-" : String.format("%.0f", ticks / completed);
+		return String.format(format, mapName, controllerName, escapeRate, meanExitTime, meanHealth, meanTicks);
+	}
+	
+	/**
+	 * Usage: BatchRunner [-threads N] [-limit SECONDS] [-controllers a.B,c.D] maps...
+	 * Directories given as maps are searched for .tmx files, and .cmap files compiled from them.
+	 */
+	public static void main(String[] args) throws Exception {
+		int threads = Runtime.getRuntime().availableProcessors();
+		float timeLimit = HeadlessSimulation.DEFAULT_TIME_LIMIT;
+		String controllerNames = "mycontroller.MyAIController";
+		List<String> maps = new ArrayList<String>();
+		
+		for(int i = 0; i < args.length; i++){
+			if(args[i].equals("-threads") && i + 1 < args.length){
+				threads = Integer.parseInt(args[++i]);
+			}
+			else if(args[i].equals("-limit") && i + 1 < args.length){
+				timeLimit = Float.parseFloat(args[++i]);
+			}
+			else if(args[i].equals("-controllers") && i + 1 < args.length){
+				controllerNames = args[++i];
+			}
+			else{
+				addMaps(new File(args[i]), maps);
+			}
+		}
+		if(maps.isEmpty()){
+			System.err.println("Usage: BatchRunner [-threads N] [-limit SECONDS] [-controllers a.B,c.D] maps...");
+			System.exit(2);
+		}
+		
+		List<Class<? extends CarController>> controllers = new ArrayList<Class<? extends CarController>>();
+		for(String name : controllerNames.split(",")){
+			controllers.add(Class.forName(name.trim()).asSubclass(CarController.class));
+		}
+		
+		long start = System.nanoTime();
+		List<Run> runs = new BatchRunner(maps, controllers, HeadlessSimulation.DEFAULT_DELTA, timeLimit, threads).run();
+		long elapsed = System.nanoTime() - start;
+		System.out.print(summarise(runs));
+		System.out.println(runs.size() + " runs on " + threads + " threads in " + (elapsed / 1000000) + "ms");
+	}
+	
+	private static void addMaps(File file, List<String> maps){
+		if(file.isDirectory()){
+			File[] children = file.listFiles();
+			if(children != null){
+				Arrays.sort(children);
+				for(File child : children){
+					String name = child.getName();
+					if(name.endsWith(CompiledMap.EXTENSION)){
+						maps.add(child.getPath());
+					}
+					// Compiled maps load faster, so they're used instead of the .tmx they came from
+					else if(name.endsWith(".tmx") && !new File(file, name.substring(0, name.length() - 4) + CompiledMap.EXTENSION).exists()){
+						maps.add(child.getPath());
+					}
+				}
+			}
+		}
+		else{
+			maps.add(file.getPath());
+		}
+	}
+}
@@ -0,0 +1,177 @@
+package com.swen30006.driving;
+
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+
+import controller.CarController;
+import controller.ReplayController;
+import world.Car;
+import world.CompiledMap;
+import world.RunLogReader;
+import world.RunRecorder;
+import world.TmxMapReader;
+import world.World;
+
+/**
+ * Runs a world without rendering, stepping the controller and the car at a fixed time step
+ * as fast as possible. Nothing here touches libGDX's application, graphics or input, so runs
+ * work on machines without a display.
+ */
+public class HeadlessSimulation {
+	
+	public static final float DEFAULT_DELTA = 1 / 60f;
+	
+	// Simulated seconds before a run that hasn't ended is given up on
+	public static final float DEFAULT_TIME_LIMIT = 600;
+	
+	private final World world;
+	private final float delta;
+	private final float timeLimit;
+	
+	public HeadlessSimulation(World world, float delta, float timeLimit){
+		if(delta <= 0){
+			throw new IllegalArgumentException("Time step must be positive: " + delta);
+		}
+		this.world = world;
+		this.delta = delta;
+		this.timeLimit = timeLimit;
+	}
+	
+	public HeadlessSimulation(World world){
+		this(world, DEFAULT_DELTA, DEFAULT_TIME_LIMIT);
+	}
+	
+	/**
+	 * Steps the world until the car escapes, dies or gets stuck, or the time limit passes.
+	 */
+	public SimulationResult run(){
+		Car car = world.getCar();
+		long maxTicks = (long) Math.ceil(timeLimit / delta);
+		long ticks = 0;
+		while(car.getStatus() == Car.Status.DRIVING && ticks < maxTicks){
+			world.update(delta);
+			ticks++;
+		}
+		return new SimulationResult(car.getStatus(), (float) world.getSimTime(), ticks, car.getHealth());
+	}
+	
+	/**
+	 * Loads a map and runs a new instance of the controller class on it.
+	 */
+	public static SimulationResult run(String mapFile, Class<? extends CarController> controllerClass,
+			float delta, float timeLimit) throws IOException {
+		World world = loadWorld(mapFile);
+		world.setController(createController(controllerClass, world.getCar()));
+		return new HeadlessSimulation(world, delta, timeLimit).run();
+	}
+	
+	/**
+	 * Replays a run recorded on the map with RunRecorder, at full speed and with the same
+	 * deltas it was recorded with.
+	 */
+	public static SimulationResult replay(String mapFile, String logFile) throws IOException {
+		RunLogReader log = new RunLogReader(new FileInputStream(logFile));
+		try {
+			return replay(loadWorld(mapFile, log.getCarWidth(), log.getCarHeight()), log);
+		} finally {
+			log.close();
+		}
+	}
+	
+	/**
+	 * Replays a recorded run on a world, which must be the one it was recorded on with a car of
+	 * the log's size. The world's controller is replaced by the replay.
+	 */
+	public static SimulationResult replay(World world, RunLogReader log) throws IOException {
+		log.checkWorld(world);
+		// The log has an entry for every physics step, so step exactly as it says
+		world.setSubStepping(Float.POSITIVE_INFINITY, 1);
+		world.setController(new ReplayController(world.getCar(), log));
+		Car car = world.getCar();
+		long ticks = 0;
+		while(car.getStatus() == Car.Status.DRIVING && log.hasNextTick()){
+			world.update(log.nextTick());
+			ticks++;
+		}
+		return new SimulationResult(car.getStatus(), (float) world.getSimTime(), ticks, car.getHealth());
+	}
+	
+	/**
+	 * Loads a map compiled with CompiledMap if it has that extension, otherwise a .tmx
+	 */
+	public static World loadWorld(String mapFile) throws IOException {
+		return mapFile.endsWith(CompiledMap.EXTENSION) ? CompiledMap.read(mapFile) : TmxMapReader.read(mapFile);
+	}
+	
+	public static World loadWorld(String mapFile, int carWidth, int carHeight) throws IOException {
+		if(mapFile.endsWith(CompiledMap.EXTENSION)){
+			return CompiledMap.read(mapFile, carWidth, carHeight);
+		}
+		return TmxMapReader.read(mapFile, carWidth, carHeight);
+	}
+	
+	public static CarController createController(Class<? extends CarController> controllerClass, Car car){
+		try {
+			Constructor<? extends CarController> constructor = controllerClass.getConstructor(Car.class);
+			return constructor.newInstance(car);
+		} catch (Exception e) {
+			throw new IllegalArgumentException(controllerClass.getName() + " can't be created with a Car", e);
+		}
+	}
+	
+	/**
+	 * Usage: HeadlessSimulation [-record run.log] map.tmx [controller class] [time limit in seconds]
+	 * Maps can also be .cmap files compiled with CompiledMap.
+	 *    or: HeadlessSimulation -replay run.log map.tmx
+	 */
+	public static void main(String[] args) throws Exception {
+		String recordFile = null;
+		String replayFile = null;
+		int first = 0;
+		if(args.length > 1 && args[0].equals("-record")){
+			recordFile = args[1];
+			first = 2;
+		}
+		else if(args.length > 1 && args[0].equals("-replay")){
+			replayFile = args[1];
+			first = 2;
+		}
+		if(args.length <= first){
+			System.err.println("Usage: HeadlessSimulation [-record run.log] <map.tmx> [controller class] [time limit]");
+			System.err.println("   or: HeadlessSimulation -replay run.log <map.tmx>");
+			System.exit(2);
+		}
+		String mapFile = args[first];
+		
+		long start = System.nanoTime();
+		SimulationResult result;
+		if(replayFile != null){
+			result = replay(mapFile, replayFile);
+		}
+		else{
+			String controllerName = args.length > first + 1 ? args[first + 1] : "mycontroller.MyAIController";
+			float timeLimit = args.length > first + 2 ? Float.parseFloat(args[first + 2]) : DEFAULT_TIME_LIMIT;
+			Class<? extends CarController> controllerClass = Class.forName(controllerName).asSubclass(CarController.class);
+			
+			World world = loadWorld(mapFile);
+			world.setController(createController(controllerClass, world.getCar()));
+			RunRecorder recorder = null;
+			if(recordFile != null){
+				recorder = new RunRecorder(world, new FileOutputStream(recordFile));
+				world.setRecorder(recorder);
+			}
+			try {
+				result = new HeadlessSimulation(world, DEFAULT_DELTA, timeLimit).run();
+			} finally {
+				if(recorder != null){
+					recorder.close();
+				}
+			}
+		}
+		long elapsed = System.nanoTime() - start;
+		System.out.println(result);
+		System.out.println("Simulated in " + (elapsed / 1000000) + "ms");
+	}
+}
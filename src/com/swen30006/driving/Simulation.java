@@ -1,5 +1,8 @@
 package com.swen30006.driving;
 
+import java.io.FileOutputStream;
+import java.io.IOException;
+
 import com.badlogic.gdx.ApplicationAdapter;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Input;
@@ -16,6 +19,8 @@ import com.badlogic.gdx.maps.tiled.TmxMapLoader;
 import com.badlogic.gdx.maps.tiled.renderers.OrthogonalTiledMapRenderer;
 import com.badlogic.gdx.math.MathUtils;
 
+import world.Car;
+import world.RunRecorder;
 import world.World;
 
 /**
@@ -28,7 +33,6 @@ public class Simulation extends ApplicationAdapter implements InputProcessor {
 	SpriteBatch batch;
 	Texture img;
 	public static TiledMap map;
-	public static long startTime;
 	public static OrthographicCamera camera;
 	private World world;
 	OrthogonalTiledMapRenderer tiledMapRenderer;
@@ -36,9 +40,32 @@ public class Simulation extends ApplicationAdapter implements InputProcessor {
 	private static CameraMode CAMERA_MODE = CameraMode.WORLD;
 	private static final int PLAYER_VIEW = 11;
 	private static boolean gameWon = false;
-	public static boolean DEBUG_MODE = false;
 	private BitmapFont font;
 	
+	// Set this system property to a file name to record the run, for replaying with HeadlessSimulation
+	public static final String RECORD_PROPERTY = "simulation.record";
+	private RunRecorder recorder;
+	
+	// How fast simulated time runs compared to real time, switched with the number keys
+	private enum TimeScale {
+		REAL_TIME(1), FAST_FORWARD(10), UNBOUNDED(Float.POSITIVE_INFINITY);
+		
+		private final float factor;
+		
+		private TimeScale(float factor){
+			this.factor = factor;
+		}
+	};
+	private TimeScale timeScale = TimeScale.REAL_TIME;
+	
+	// The world always steps by this much, so runs don't depend on the frame rate
+	private static final float STEP = HeadlessSimulation.DEFAULT_DELTA;
+	// Longest frame that counts, so a stall doesn't make the simulation race to catch up
+	private static final float MAX_FRAME_DELTA = 0.25f;
+	// Real time per frame spent stepping when unbounded, leaving the rest for rendering
+	private static final long UNBOUNDED_FRAME_NANOS = 12000000;
+	private float unsteppedTime = 0;
+	
 	// For debugging (allows pause)
 	public enum State {PAUSE, RUN};
 	public State state = State.RUN;
@@ -47,7 +74,6 @@ public class Simulation extends ApplicationAdapter implements InputProcessor {
 	@Override
 	public void create () {
 		
-		startTime = System.currentTimeMillis();
 		// Define the asset manager
 		// map = new TmxMapLoader().load("easy-map.tmx");
 		// map = new TmxMapLoader().load("easy-map-traps.tmx");
@@ -68,9 +94,19 @@ public class Simulation extends ApplicationAdapter implements InputProcessor {
 		// Create the world
 		world = new World(map);
 		
+		String recordFile = System.getProperty(RECORD_PROPERTY);
+		if(recordFile != null){
+			try {
+				recorder = new RunRecorder(world, new FileOutputStream(recordFile));
+				world.setRecorder(recorder);
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+		
 		// Set the camera
 		camera = new OrthographicCamera();
-		camera.setToOrtho(false,World.MAP_WIDTH,World.MAP_HEIGHT);
+		camera.setToOrtho(false,world.getWidth(),world.getHeight());
 		camera.update();
 		
 		// Define scale per unit
@@ -95,11 +131,12 @@ public class Simulation extends ApplicationAdapter implements InputProcessor {
 		tiledMapRenderer.getBatch().end();
 		switch (state) {
 			case RUN:
-				world.update(Gdx.graphics.getDeltaTime());
+				advance(Gdx.graphics.getDeltaTime());
 				break;
 			case PAUSE:
 				break;
 		}		
+		checkGameOver(world.getCar().getStatus());
 		
 		if(CAMERA_MODE.equals(CameraMode.PLAYER)){
 			followCar();
@@ -126,7 +163,7 @@ public class Simulation extends ApplicationAdapter implements InputProcessor {
 			font.draw(batch, layout, fontX, fontY);
 			font.setColor(Color.GREEN);
 			
-			System.out.println("You escaped and it took: " + ((System.currentTimeMillis() - startTime) / 1000+" seconds!"));
+			System.out.println("You escaped and it took: " + timeElapsed() + " seconds!");
 
 			Gdx.app.exit();
 		}
@@ -135,6 +172,13 @@ public class Simulation extends ApplicationAdapter implements InputProcessor {
 	
 	@Override
 	public void dispose () {
+		if(recorder != null){
+			try {
+				recorder.close();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
 	}
 
 	@Override
@@ -154,13 +198,23 @@ public class Simulation extends ApplicationAdapter implements InputProcessor {
 		}
 		if(keycode == Input.Keys.Z){
 			
-			camera.viewportWidth = World.MAP_WIDTH;
-			camera.viewportHeight = World.MAP_HEIGHT;
+			camera.viewportWidth = world.getWidth();
+			camera.viewportHeight = world.getHeight();
 			camera.position.set(0,0,0);
 			CAMERA_MODE = CameraMode.WORLD;
 		}
 		if(keycode == Input.Keys.F){
-			DEBUG_MODE = true;
+			world.getCar().setDebugMode(true);
+		}
+		
+		if(keycode == Input.Keys.NUM_1){
+			setTimeScale(TimeScale.REAL_TIME);
+		}
+		if(keycode == Input.Keys.NUM_2){
+			setTimeScale(TimeScale.FAST_FORWARD);
+		}
+		if(keycode == Input.Keys.NUM_3){
+			setTimeScale(TimeScale.UNBOUNDED);
 		}
 		
 		if (keycode == Input.Keys.P) {
@@ -211,6 +265,12 @@ public class Simulation extends ApplicationAdapter implements InputProcessor {
 		return false;
 	}
 	
+	private void setTimeScale(TimeScale timeScale){
+		this.timeScale = timeScale;
+		unsteppedTime = 0;
+		System.out.println("Time scale: " + timeScale);
+	}
+	
 	public void followCar(){
 		
 		float carXPosition = world.getCar().getX();
@@ -220,9 +280,46 @@ public class Simulation extends ApplicationAdapter implements InputProcessor {
 		
 	}
 	
-	public static void winGame(){
-		gameWon = true;
-
+	private void advance(float frameDelta){
+		Car car = world.getCar();
+		if(timeScale == TimeScale.UNBOUNDED){
+			long deadline = System.nanoTime() + UNBOUNDED_FRAME_NANOS;
+			do {
+				world.update(STEP);
+			} while(System.nanoTime() < deadline && car.getStatus() == Car.Status.DRIVING);
+			unsteppedTime = 0;
+			return;
+		}
+		
+		unsteppedTime += Math.min(frameDelta, MAX_FRAME_DELTA) * timeScale.factor;
+		while(unsteppedTime >= STEP && car.getStatus() == Car.Status.DRIVING){
+			world.update(STEP);
+			unsteppedTime -= STEP;
+		}
+	}
+	
+	private String timeElapsed(){
+		return String.format("%.2f", world.getSimTime());
+	}
+	
+	private void checkGameOver(Car.Status status){
+		switch(status){
+		case ESCAPED:
+			gameWon = true;
+			break;
+		case DIED:
+			System.out.println("NO HEALTH. GAME OVER. ESCAPE FAILED!!");
+			System.out.println("Time elapsed: " + timeElapsed() + " seconds!");
+			Gdx.app.exit();
+			break;
+		case STUCK:
+			System.out.println("STUCK IN MUD. GAME OVER. ESCAPE FAILED!!");
+			System.out.println("Time elapsed: " + timeElapsed() + " seconds!");
+			Gdx.app.exit();
+			break;
+		default:
+			break;
+		}
 	}
 
 }
@@ -0,0 +1,49 @@
+package com.swen30006.driving;
+
+import world.Car;
+
+/**
+ * The outcome of one headless run: how it ended, how long it took in simulated time and
+ * the car's state at the end.
+ */
+public class SimulationResult {
+	
+	private final Car.Status status;
+	private final float simTime;
+	private final long ticks;
+	private final int health;
+	
+	public SimulationResult(Car.Status status, float simTime, long ticks, int health){
+		this.status = status;
+		this.simTime = simTime;
+		this.ticks = ticks;
+		this.health = health;
+	}
+	
+	/** How the run ended, DRIVING if it ran out of time first */
+	public Car.Status getStatus(){
+		return status;
+	}
+	
+	public boolean escaped(){
+		return status == Car.Status.ESCAPED;
+	}
+	
+	/** Simulated seconds until the run ended */
+	public float getSimTime(){
+		return simTime;
+	}
+	
+	public long getTicks(){
+		return ticks;
+	}
+	
+	public int getHealth(){
+		return health;
+	}
+	
+	@Override
+	public String toString(){
+		return status + " after " + simTime + "s (" + ticks + " ticks) with " + health + " health";
+	}
+}
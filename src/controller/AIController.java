@@ -5,6 +5,7 @@ import java.util.HashMap;
 import tiles.MapTile;
 import utilities.Coordinate;
 import world.Car;
+import world.SensorWindow;
 import world.WorldSpatial;
 
 public class AIController extends CarController {
@@ -33,7 +34,7 @@ public class AIController extends CarController {
 	public void update(float delta) {
 		
 		// Gets what the car can see
-		HashMap<Coordinate, MapTile> currentView = getView();
+		SensorWindow currentView = getSensorWindow();
 		
 		
 		checkStateChange();
@@ -274,7 +275,7 @@ public class AIController extends CarController {
 	 * @param currentView what the car can currently see
 	 * @return
 	 */
-	private boolean checkWallAhead(WorldSpatial.Direction orientation, HashMap<Coordinate, MapTile> currentView){
+	private boolean checkWallAhead(WorldSpatial.Direction orientation, SensorWindow currentView){
 		switch(orientation){
 		case EAST:
 			return checkEast(currentView);
@@ -296,7 +297,7 @@ public class AIController extends CarController {
 	 * @param currentView
 	 * @return
 	 */
-	private boolean checkFollowingWall(WorldSpatial.Direction orientation, HashMap<Coordinate, MapTile> currentView) {
+	private boolean checkFollowingWall(WorldSpatial.Direction orientation, SensorWindow currentView) {
 		
 		switch(orientation){
 		case EAST:
@@ -322,48 +323,108 @@ public class AIController extends CarController {
 	 * checkNorth will check up to wallSensitivity amount of tiles to the top.
 	 * checkSouth will check up to wallSensitivity amount of tiles below.
 	 */
-	public boolean checkEast(HashMap<Coordinate, MapTile> currentView){
+	public boolean checkEast(SensorWindow currentView){
 		// Check tiles to my right
-		Coordinate currentPosition = new Coordinate(getPosition());
+		for(int i = 0; i <= wallSensitivity; i++){
+			MapTile tile = currentView.tileAt(i, 0);
+			if(tile.getType() == MapTile.TYPE_WALL){
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	public boolean checkWest(SensorWindow currentView){
+		// Check tiles to my left
+		for(int i = 0; i <= wallSensitivity; i++){
+			MapTile tile = currentView.tileAt(-i, 0);
+			if(tile.getType() == MapTile.TYPE_WALL){
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	public boolean checkNorth(SensorWindow currentView){
+		// Check tiles to towards the top
+		for(int i = 0; i <= wallSensitivity; i++){
+			MapTile tile = currentView.tileAt(0, i);
+			if(tile.getType() == MapTile.TYPE_WALL){
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	public boolean checkSouth(SensorWindow currentView){
+		// Check tiles towards the bottom
+		for(int i = 0; i <= wallSensitivity; i++){
+			MapTile tile = currentView.tileAt(0, -i);
+			if(tile.getType() == MapTile.TYPE_WALL){
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * checkEast on a view copied by getView
+	 * @deprecated use checkEast(SensorWindow), which reads the view without copying it
+	 */
+	@Deprecated
+	public boolean checkEast(HashMap<Coordinate,MapTile> currentView){
+		Coordinate currentPosition = new Coordinate(getTileX(), getTileY());
 		for(int i = 0; i <= wallSensitivity; i++){
 			MapTile tile = currentView.get(new Coordinate(currentPosition.x+i, currentPosition.y));
-			if(tile.getName().equals("Wall")){
+			if(tile.getType() == MapTile.TYPE_WALL){
 				return true;
 			}
 		}
 		return false;
 	}
 	
+	/**
+	 * checkWest on a view copied by getView
+	 * @deprecated use checkWest(SensorWindow), which reads the view without copying it
+	 */
+	@Deprecated
 	public boolean checkWest(HashMap<Coordinate,MapTile> currentView){
-		// Check tiles to my left
-		Coordinate currentPosition = new Coordinate(getPosition());
+		Coordinate currentPosition = new Coordinate(getTileX(), getTileY());
 		for(int i = 0; i <= wallSensitivity; i++){
 			MapTile tile = currentView.get(new Coordinate(currentPosition.x-i, currentPosition.y));
-			if(tile.getName().equals("Wall")){
+			if(tile.getType() == MapTile.TYPE_WALL){
 				return true;
 			}
 		}
 		return false;
 	}
 	
+	/**
+	 * checkNorth on a view copied by getView
+	 * @deprecated use checkNorth(SensorWindow), which reads the view without copying it
+	 */
+	@Deprecated
 	public boolean checkNorth(HashMap<Coordinate,MapTile> currentView){
-		// Check tiles to towards the top
-		Coordinate currentPosition = new Coordinate(getPosition());
+		Coordinate currentPosition = new Coordinate(getTileX(), getTileY());
 		for(int i = 0; i <= wallSensitivity; i++){
 			MapTile tile = currentView.get(new Coordinate(currentPosition.x, currentPosition.y+i));
-			if(tile.getName().equals("Wall")){
+			if(tile.getType() == MapTile.TYPE_WALL){
 				return true;
 			}
 		}
 		return false;
 	}
 	
+	/**
+	 * checkSouth on a view copied by getView
+	 * @deprecated use checkSouth(SensorWindow), which reads the view without copying it
+	 */
+	@Deprecated
 	public boolean checkSouth(HashMap<Coordinate,MapTile> currentView){
-		// Check tiles towards the bottom
-		Coordinate currentPosition = new Coordinate(getPosition());
+		Coordinate currentPosition = new Coordinate(getTileX(), getTileY());
 		for(int i = 0; i <= wallSensitivity; i++){
 			MapTile tile = currentView.get(new Coordinate(currentPosition.x, currentPosition.y-i));
-			if(tile.getName().equals("Wall")){
+			if(tile.getType() == MapTile.TYPE_WALL){
 				return true;
 			}
 		}
@@ -8,6 +8,9 @@ import tiles.MapTile;
 import utilities.Coordinate;
 import utilities.PeekTuple;
 import world.Car;
+import world.PeekCache;
+import world.SensorWindow;
+import world.TrajectoryPredictor;
 import world.WorldSpatial;
 
 public abstract class CarController {
@@ -60,12 +63,26 @@ public abstract class CarController {
 	}
 	
 	/**
-	 * Retrieves the car's current position
+	 * Retrieves the car's current position as an "x,y" string, for display
 	 */
 	public String getPosition(){
 		return this.car.getPosition();
 	}
 	
+	/**
+	 * Retrieves the x coordinate of the tile the car is on
+	 */
+	public int getTileX(){
+		return this.car.getTileX();
+	}
+	
+	/**
+	 * Retrieves the y coordinate of the tile the car is on
+	 */
+	public int getTileY(){
+		return this.car.getTileY();
+	}
+	
 	/**
 	 * Returns the car's current velocity.
 	 */
@@ -97,22 +114,71 @@ public abstract class CarController {
 	 * This projection assumes that the car's velocity is constant and the delta value is
 	 * also constant (in reality, the delta value will vary)
 	 * 
+	 * Predictions are cached, so peeking at the same turn again from the same state near
+	 * the same walls costs next to nothing. See getPeekCache for how often that happens.
+	 * A cached prediction was made from a state close to the car's, not the car's own, so
+	 * it is approximate: it can be a tile off when the turn ends near a tile's edge. Use
+	 * peekExact where that matters.
+	 * 
 	 * @param velocity refers to the car's velocity
 	 * @param targetDegree refers to what degree you want to be in
 	 * @param turnDirection refers to which direction you are turning
 	 * @param delta refers to the delta value passed by update.
 	 */
 	public PeekTuple peek(Vector2 velocity, float targetDegree, WorldSpatial.RelativeDirection turnDirection, float delta){
+		return car.getPeekCache().peek(velocity.x, velocity.y, targetDegree, turnDirection, delta);
+	}
+	
+	/**
+	 * As peek, but always predicted from the car's exact state, bypassing the cache
+	 * 
+	 * @param velocity refers to the car's velocity
+	 * @param targetDegree refers to what degree you want to be in
+	 * @param turnDirection refers to which direction you are turning
+	 * @param delta refers to the delta value passed by update.
+	 */
+	public PeekTuple peekExact(Vector2 velocity, float targetDegree, WorldSpatial.RelativeDirection turnDirection, float delta){
 		return car.peek(velocity, targetDegree, turnDirection, delta);
 	}
 	
 	/**
-	 * Returns the view around your car (this is a 3x3 area)
+	 * The cache in front of peek, with its hit and miss counts
+	 */
+	public PeekCache getPeekCache(){
+		return car.getPeekCache();
+	}
+	
+	/**
+	 * Predicts turns like peek, without allocating, for as many candidate turns per update
+	 * as you like. Predictions are from the car's state when they're made.
+	 */
+	public TrajectoryPredictor getTrajectoryPredictor(){
+		return car.getTrajectoryPredictor();
+	}
+	
+	/**
+	 * Returns a copy of the view around your car (this is a 3x3 area)
 	 */
 	public HashMap<Coordinate,MapTile> getView(){
 		return car.getView();
 	}
 	
+	/**
+	 * Returns the view around your car without copying it, addressed relative
+	 * to the car. The same window is reused and re-centred on every call.
+	 */
+	public SensorWindow getSensorWindow(){
+		return car.getSensorWindow();
+	}
+	
+	/**
+	 * Passes only the tiles that have come into view since the last call to the
+	 * visitor: the whole view the first time, then just the newly revealed edge.
+	 */
+	public void visitRevealedTiles(SensorWindow.TileVisitor visitor){
+		car.getSensorWindow().visitRevealed(visitor);
+	}
+	
 	/**
 	 * Get the distance the car can see
 	 */
@@ -127,6 +193,13 @@ public abstract class CarController {
 		return car.getOrientation();
 	}
 	
+	/**
+	 * Called before update with each tile the car has entered since the last update,
+	 * in the order it entered them, so no tile is missed however far the car moved
+	 */
+	public void tileEntered(int x, int y){
+	}
+	
 	/**
 	 * This is the required update step for a vehicle.
 	 */
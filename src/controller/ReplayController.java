@@ -0,0 +1,30 @@
+package controller;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import world.Car;
+import world.RunLogReader;
+
+/**
+ * Re-issues the inputs of a recorded run, tick by tick. The world must be stepped with the
+ * deltas from the same log for the car to follow the recorded trajectory exactly.
+ */
+public class ReplayController extends CarController implements RunLogReader.InputHandler {
+	
+	private final RunLogReader log;
+	
+	public ReplayController(Car car, RunLogReader log){
+		super(car);
+		this.log = log;
+	}
+	
+	@Override
+	public void update(float delta) {
+		try {
+			log.applyInputs(this);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
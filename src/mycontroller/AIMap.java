@@ -10,16 +10,74 @@ import java.util.Map;
 
 import tiles.MapTile;
 import utilities.Coordinate;
+import world.SensorWindow;
 import world.WorldSpatial;
 
 /**
  * A representation of the observed (and unobserved)
  * portions of the map by our controller.
+ *
+ * Tiles are stored as one flags byte each (see KnownAITile) in
+ * square chunks, which are only allocated once a tile inside
+ * them has been seen. Reading a tile never modifies the map.
  */
-public class AIMap {
+public class AIMap implements SensorWindow.TileVisitor {
 
-	/** Contains a mapping from Coordinates to AITiles. */
-	private HashMap<Coordinate, AITile> tiles;
+	/**
+	 * Something that wants to know whenever a tile of the map
+	 * changes, e.g. so it can repair a plan rather than redo it.
+	 */
+	public interface TileListener {
+
+		/**
+		 * Called after the tile at a position has changed.
+		 *
+		 * @param x x coordinate of the tile
+		 * @param y y coordinate of the tile
+		 */
+		void tileChanged(int x, int y);
+	}
+
+	/** log2 of the width of a chunk in tiles. */
+	private static final int CHUNK_SHIFT = 4;
+
+	/** The width (and height) of a chunk in tiles. */
+	private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+
+	/** Mask to find a tile's position within its chunk. */
+	private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+	/** The tile returned for every position we haven't seen. */
+	private static final AITile UNKNOWN_TILE = new UnknownAITile();
+
+	/**
+	 * Grid of chunks covering the chunk coordinates from
+	 * (chunkOriginX, chunkOriginY), null where nothing is known.
+	 */
+	private byte[][] chunks;
+
+	/** Chunk coordinates of the first chunk in the grid. */
+	private int chunkOriginX;
+	private int chunkOriginY;
+
+	/** Dimensions of the chunk grid, in chunks. */
+	private int chunksWide;
+	private int chunksHigh;
+
+	/** Bounding box of every known tile, empty while nothing is known. */
+	private int minKnownX;
+	private int minKnownY;
+	private int maxKnownX;
+	private int maxKnownY;
+
+	/**
+	 * Incremented every time a tile becomes known, so anything derived
+	 * from the map can tell whether it is out of date.
+	 */
+	private int version;
+
+	/** Everything listening for changes to tiles. */
+	private ArrayList<TileListener> listeners;
 
 	/** Whether or not the exit has been found by the Car. */
 	private boolean exitFound;
@@ -27,11 +85,25 @@ public class AIMap {
 	/** The coordinates of the exit. */
 	private Coordinate exit;
 
+	/**
+	 * The state ExiterStrategyFactory keeps for planning over this
+	 * map, null until it first plans over it.
+	 */
+	private ExiterStrategyFactory.Planning planning;
+
 	/**
 	 * Initialises an empty AIMap.
 	 */
 	public AIMap() {
-		tiles = new HashMap<Coordinate, AITile>();
+		chunks = new byte[0][];
+		chunksWide = 0;
+		chunksHigh = 0;
+		minKnownX = Integer.MAX_VALUE;
+		minKnownY = Integer.MAX_VALUE;
+		maxKnownX = Integer.MIN_VALUE;
+		maxKnownY = Integer.MIN_VALUE;
+		version = 0;
+		listeners = new ArrayList<TileListener>();
 		exitFound = false;
 		exit = null;
 	}
@@ -40,25 +112,79 @@ public class AIMap {
 	 * Update the map with the current view, integrating the found
 	 * tiles into the tiles map.
 	 *
-	 * @param currentView HashMap mapping coordinates to tiles for 7x7 view
+	 * @param currentView the car's sensor window, read in place
+	 */
+	public void update(SensorWindow currentView) {
+		currentView.visitAll(this);
+	}
+
+	/**
+	 * Update the map with a view copied by getView, integrating the
+	 * found tiles into the tiles map.
+	 *
+	 * @param currentView the car's view, keyed by coordinate
 	 */
 	public void update(HashMap<Coordinate, MapTile> currentView) {
 		for (Map.Entry<Coordinate, MapTile> entry : currentView.entrySet()) {
-			if (!tiles.containsKey(entry.getKey())) {
-				// Create KnownAITile and insert it into the tiles map
-				KnownAITile tile = new KnownAITile(entry.getValue());
-				tiles.put(entry.getKey(), tile);
-
-				// Only update the exit if there isn't already an exit
-				// tile found
-				if (tile.isExit() && !exitFound) {
-					exitFound = true;
-					exit = entry.getKey();
-				}
-			}
+			visit(entry.getKey().x, entry.getKey().y, entry.getValue());
+		}
+	}
+
+	/**
+	 * Integrates a single tile the car has seen into the tiles map,
+	 * ignoring it if it is already known. Lets the map be fed only
+	 * the newly revealed tiles each update.
+	 *
+	 * @param x x coordinate of the tile
+	 * @param y y coordinate of the tile
+	 * @param mapTile the tile seen there
+	 */
+	@Override
+	public void visit(int x, int y, MapTile mapTile) {
+		if (flagsAt(x, y) != 0) {
+			return;
+		}
+
+		byte flags = KnownAITile.flagsOf(mapTile);
+		chunkFor(x, y)[cellIndex(x, y)] = flags;
+
+		minKnownX = Math.min(minKnownX, x);
+		minKnownY = Math.min(minKnownY, y);
+		maxKnownX = Math.max(maxKnownX, x);
+		maxKnownY = Math.max(maxKnownY, y);
+		version++;
+
+		for (int i = 0; i < listeners.size(); i++) {
+			listeners.get(i).tileChanged(x, y);
+		}
+
+		// Only update the exit if there isn't already an exit
+		// tile found
+		if ((flags & KnownAITile.EXIT) != 0 && !exitFound) {
+			exitFound = true;
+			exit = new Coordinate(x, y);
 		}
 	}
 
+	/**
+	 * Registers a listener to be told about every tile that changes
+	 * from now on.
+	 *
+	 * @param listener the listener to add
+	 */
+	public void addTileListener(TileListener listener) {
+		listeners.add(listener);
+	}
+
+	/**
+	 * Stops a listener being told about changes.
+	 *
+	 * @param listener the listener to remove
+	 */
+	public void removeTileListener(TileListener listener) {
+		listeners.remove(listener);
+	}
+
 	/**
 	 * Returns the AITile at a given position.
 	 *
@@ -66,11 +192,7 @@ public class AIMap {
 	 * @return tile at given position
 	 */
 	public AITile tileAt(Coordinate pos) {
-		if (!tiles.containsKey(pos)) {
-			tiles.put(pos, new UnknownAITile());
-		}
-
-		return tiles.get(pos);
+		return tileAt(pos.x, pos.y);
 	}
 
 	/**
@@ -81,7 +203,117 @@ public class AIMap {
 	 * @return tile at given position
 	 */
 	public AITile tileAt(int x, int y) {
-		return tileAt(new Coordinate(x, y));
+		byte flags = flagsAt(x, y);
+		if (flags == 0) {
+			return UNKNOWN_TILE;
+		}
+		return KnownAITile.forFlags(flags);
+	}
+
+	/**
+	 * Whether or not the tile at a position has been seen.
+	 *
+	 * @param x x coordinate of the tile
+	 * @param y y coordinate of the tile
+	 * @return whether the tile is known
+	 */
+	public boolean isKnown(int x, int y) {
+		return flagsAt(x, y) != 0;
+	}
+
+	/**
+	 * Returns the packed flags of a tile, 0 if it is unknown.
+	 *
+	 * @param x x coordinate of the tile
+	 * @param y y coordinate of the tile
+	 * @return flags of the tile
+	 */
+	byte flagsAt(int x, int y) {
+		int chunkX = (x >> CHUNK_SHIFT) - chunkOriginX;
+		int chunkY = (y >> CHUNK_SHIFT) - chunkOriginY;
+		if (chunkX < 0 || chunkY < 0 ||
+			chunkX >= chunksWide || chunkY >= chunksHigh) {
+			return 0;
+		}
+
+		byte[] chunk = chunks[chunkX + chunkY * chunksWide];
+		if (chunk == null) {
+			return 0;
+		}
+		return chunk[cellIndex(x, y)];
+	}
+
+	/**
+	 * Returns the index of a tile within its chunk.
+	 *
+	 * @param x x coordinate of the tile
+	 * @param y y coordinate of the tile
+	 * @return index into the chunk's array
+	 */
+	private static int cellIndex(int x, int y) {
+		return (x & CHUNK_MASK) | ((y & CHUNK_MASK) << CHUNK_SHIFT);
+	}
+
+	/**
+	 * Returns the chunk holding a tile, allocating it (and growing
+	 * the chunk grid) if need be.
+	 *
+	 * @param x x coordinate of the tile
+	 * @param y y coordinate of the tile
+	 * @return the tile's chunk
+	 */
+	private byte[] chunkFor(int x, int y) {
+		int chunkX = x >> CHUNK_SHIFT;
+		int chunkY = y >> CHUNK_SHIFT;
+		if (chunkX < chunkOriginX || chunkY < chunkOriginY ||
+			chunkX >= chunkOriginX + chunksWide ||
+			chunkY >= chunkOriginY + chunksHigh) {
+			growToInclude(chunkX, chunkY);
+		}
+
+		int index = (chunkX - chunkOriginX) +
+					(chunkY - chunkOriginY) * chunksWide;
+		if (chunks[index] == null) {
+			chunks[index] = new byte[CHUNK_SIZE * CHUNK_SIZE];
+		}
+		return chunks[index];
+	}
+
+	/**
+	 * Grows the chunk grid so it covers the given chunk, with a
+	 * chunk of slack in each direction it grows.
+	 *
+	 * @param chunkX chunk x coordinate to cover
+	 * @param chunkY chunk y coordinate to cover
+	 */
+	private void growToInclude(int chunkX, int chunkY) {
+		int minX = chunkX - 1;
+		int minY = chunkY - 1;
+		int maxX = chunkX + 1;
+		int maxY = chunkY + 1;
+		if (chunksWide > 0) {
+			minX = Math.min(minX, chunkOriginX);
+			minY = Math.min(minY, chunkOriginY);
+			maxX = Math.max(maxX, chunkOriginX + chunksWide - 1);
+			maxY = Math.max(maxY, chunkOriginY + chunksHigh - 1);
+		}
+
+		int newWide = maxX - minX + 1;
+		int newHigh = maxY - minY + 1;
+		byte[][] newChunks = new byte[newWide * newHigh][];
+		for (int cy = 0; cy < chunksHigh; cy++) {
+			for (int cx = 0; cx < chunksWide; cx++) {
+				int newIndex = (cx + chunkOriginX - minX) +
+							   (cy + chunkOriginY - minY) * newWide;
+				newChunks[newIndex] = chunks[cx + cy * chunksWide];
+			}
+		}
+
+		chunks = newChunks;
+		chunkOriginX = minX;
+		chunkOriginY = minY;
+		chunksWide = newWide;
+		chunksHigh = newHigh;
 	}
 
 	/**
@@ -97,14 +329,14 @@ public class AIMap {
 	public AITile tileAtRelative(Coordinate carPos,
 								 WorldSpatial.Direction orientation,
 								 Coordinate pos) {
-		Coordinate rotated = rotateToOrientation(pos, orientation);
-		return tileAt(carPos.x + rotated.x, carPos.y + rotated.y);
+		return tileAtRelative(carPos, orientation, pos.x, pos.y);
 	}
 
 	/**
 	 * Returns the AITile given a relative position
 	 * from the car, with positive y being in front of the car
-	 * etc.
+	 * etc. The position is rotated from NORTH to the car's
+	 * orientation in place, so no Coordinate is needed.
 	 *
 	 * @param carPos position of the car
 	 * @param orientation orientation of the car
@@ -115,7 +347,16 @@ public class AIMap {
 	public AITile tileAtRelative(Coordinate carPos,
 								 WorldSpatial.Direction orientation,
 								 int x, int y) {
-		return tileAtRelative(carPos, orientation, new Coordinate(x, y));
+		switch (orientation) {
+		case EAST:
+			return tileAt(carPos.x + y, carPos.y - x);
+		case SOUTH:
+			return tileAt(carPos.x - x, carPos.y - y);
+		case WEST:
+			return tileAt(carPos.x - y, carPos.y + x);
+		default:
+			return tileAt(carPos.x + x, carPos.y + y);
+		}
 	}
 	
 	/**
@@ -127,13 +368,22 @@ public class AIMap {
 	public ArrayList<Coordinate> getKnownCoordinates() {	
 		ArrayList<Coordinate> knownCoordinates = new ArrayList<Coordinate>();
 		
-		for (HashMap.Entry<Coordinate, AITile> entry : tiles.entrySet()) {
-			// Extract (coordinate, tile) from the entry
-			Coordinate coordinate = entry.getKey();
-			AITile tile = entry.getValue();
-			
-			if (tile.known()) {
-				knownCoordinates.add(coordinate);
+		for (int cy = 0; cy < chunksHigh; cy++) {
+			for (int cx = 0; cx < chunksWide; cx++) {
+				byte[] chunk = chunks[cx + cy * chunksWide];
+				if (chunk == null) {
+					continue;
+				}
+
+				int baseX = (cx + chunkOriginX) << CHUNK_SHIFT;
+				int baseY = (cy + chunkOriginY) << CHUNK_SHIFT;
+				for (int i = 0; i < chunk.length; i++) {
+					if (chunk[i] != 0) {
+						knownCoordinates.add(new Coordinate(
+								baseX + (i & CHUNK_MASK),
+								baseY + (i >> CHUNK_SHIFT)));
+					}
+				}
 			}
 		}
 		
@@ -247,37 +497,67 @@ public class AIMap {
 	}
 
 	/**
-	 * Returns a coordinate rotated to a certain direction given
-	 * in terms of NORTH.
+	 * Returns the smallest x coordinate of any known tile.
 	 *
-	 * @param pos position with respect to NORTH
-	 * @param orientation orientation to rotate to
-	 * @return rotate coordinate
-	 */
-	private Coordinate rotateToOrientation(
-			Coordinate pos,	WorldSpatial.Direction orientation) {
-		int x = pos.x;
-		int y = pos.y;
-		switch (orientation) {
-		case NORTH:
-			break;
-		case EAST:
-			x = pos.y;
-			y = -pos.x;
-			break;
-		case SOUTH:
-			x = -pos.x;
-			y = -pos.y;
-			break;
-		case WEST:
-			x = -pos.y;
-			y = pos.x;
-			break;
-		default:
-			break;
-		}
+	 * @return minimum known x, undefined if nothing is known
+	 */
+	public int getMinKnownX() {
+		return minKnownX;
+	}
+
+	/**
+	 * Returns the smallest y coordinate of any known tile.
+	 *
+	 * @return minimum known y, undefined if nothing is known
+	 */
+	public int getMinKnownY() {
+		return minKnownY;
+	}
 
-		return new Coordinate(x, y);
+	/**
+	 * Returns the largest x coordinate of any known tile.
+	 *
+	 * @return maximum known x, undefined if nothing is known
+	 */
+	public int getMaxKnownX() {
+		return maxKnownX;
+	}
+
+	/**
+	 * Returns the largest y coordinate of any known tile.
+	 *
+	 * @return maximum known y, undefined if nothing is known
+	 */
+	public int getMaxKnownY() {
+		return maxKnownY;
+	}
+
+	/**
+	 * Returns the map's modification count, which increases whenever
+	 * a new tile becomes known and never otherwise.
+	 *
+	 * @return the current version of the map
+	 */
+	public int getVersion() {
+		return version;
+	}
+
+	/**
+	 * Returns the state ExiterStrategyFactory keeps for this map.
+	 *
+	 * @return the planning state, null if none has been kept yet
+	 */
+	ExiterStrategyFactory.Planning getPlanning() {
+		return planning;
+	}
+
+	/**
+	 * Sets the state ExiterStrategyFactory keeps for this map.
+	 *
+	 * @param planning the planning state to keep
+	 */
+	void setPlanning(ExiterStrategyFactory.Planning planning) {
+		this.planning = planning;
 	}
 
 	/**
@@ -27,4 +27,15 @@ public abstract class ControlStrategy {
 	 */
 	public abstract boolean shouldChangeStrategy(MyAIController controller);
 	
+	/**
+	 * Tells the strategy the car has entered a tile, called for every
+	 * tile in the order they were entered before the next update. Does
+	 * nothing unless overridden.
+	 * 
+	 * @param x x coordinate of the tile
+	 * @param y y coordinate of the tile
+	 */
+	public void tileEntered(int x, int y) {
+	}
+	
 }
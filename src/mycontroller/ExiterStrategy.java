@@ -7,13 +7,16 @@ package mycontroller;
 import java.util.ArrayList;
 
 import utilities.Coordinate;
+import utilities.TileRingBuffer;
 import world.WorldSpatial;
 
 /**
  * ExiterStrategy is a ControlStrategy that the controller
  * should use once an exit has been found, it follows
  * a given path from the cars current location to the exit,
- * without traveling on diagonals.
+ * without traveling on diagonals. If it is given the map and
+ * planner the path came from, it keeps the map up to date and
+ * switches to a cheaper path whenever newly seen tiles offer one.
  */
 public class ExiterStrategy extends ControlStrategy {
 
@@ -35,6 +38,9 @@ public class ExiterStrategy extends ControlStrategy {
 	/** The current position of the car. */
 	private Coordinate currentPosition;
 	
+	/** Tiles the car has entered since the last update, oldest first. */
+	private TileRingBuffer enteredTiles;
+	
 	/** The index of the path that we're currently at. */
 	private int pathIndex;
 	
@@ -50,6 +56,15 @@ public class ExiterStrategy extends ControlStrategy {
 	/** Whether the car has reached the end of the path. */
 	private boolean done;
 	
+	/** The map to keep up to date, null if there isn't one. */
+	private AIMap map;
+	
+	/** The planner to ask for better paths, null if there isn't one. */
+	private IncrementalPlanner planner;
+	
+	/** The map version the current path was checked against. */
+	private int plannedVersion;
+	
 	/**
 	 * Initiates an ExiterStrategy given a path to follow.
 	 * 
@@ -59,11 +74,28 @@ public class ExiterStrategy extends ControlStrategy {
 		this.path = path;
 		this.pathIndex = 0;
 		this.currentPosition = null;
+		this.enteredTiles = new TileRingBuffer(8);
 		this.done = false;
 		this.backingUp = false;
 		this.initialisedWithController = false;
 	}
 	
+	/**
+	 * Initiates an ExiterStrategy given a path to follow, which will
+	 * be replanned as the map reveals more tiles.
+	 * 
+	 * @param path the path the car should travel upon
+	 * @param map the map the path was planned over
+	 * @param planner the planner the path came from
+	 */
+	public ExiterStrategy(ArrayList<Coordinate> path, AIMap map,
+						  IncrementalPlanner planner) {
+		this(path);
+		this.map = map;
+		this.planner = planner;
+		this.plannedVersion = map.getVersion();
+	}
+	
 	/**
 	 * Makes decisions for the car in order for it to navigate
 	 * the path successfully.
@@ -75,12 +107,48 @@ public class ExiterStrategy extends ControlStrategy {
 			initialiseWithController(controller);
 		}
 		
-		// We only want to perform an action if we enter a new tile
-		// and we're not done
-		if (done || !positionChanged(controller)) {
-			return;
+		if (map != null) {
+			controller.visitRevealedTiles(map);
+		}
+		
+		// We only want to perform an action when we enter a new tile.
+		// Every tile crossed since the last update moves us along the
+		// path, but only the one we're on now decides where to turn.
+		boolean onPath = false;
+		while (!done && !enteredTiles.isEmpty()) {
+			int x = enteredTiles.headX();
+			int y = enteredTiles.headY();
+			enteredTiles.removeHead();
+			
+			if (x != currentPosition.x || y != currentPosition.y) {
+				currentPosition = new Coordinate(x, y);
+				onPath = enterTile(controller);
+			}
 		}
 		
+		if (onPath) {
+			followPath(controller);
+		}
+	}
+	
+	/**
+	 * Queues a tile the car has entered, to be acted on next update.
+	 */
+	@Override
+	public void tileEntered(int x, int y) {
+		enteredTiles.add(x, y);
+	}
+	
+	/**
+	 * Makes the decisions for entering the tile at currentPosition:
+	 * finishing backing up, stopping at the end of the path, or
+	 * moving on to the next tile of the path.
+	 * 
+	 * @param controller the controller using this strategy
+	 * @return whether the tile was the next tile of the path, so the
+	 * 		   car should head for the one after it
+	 */
+	private boolean enterTile(MyAIController controller) {
 		if (backingUp) {
 			// We're back at the start
 			if (backingUpTarget.equals(currentPosition)) {
@@ -91,21 +159,35 @@ public class ExiterStrategy extends ControlStrategy {
 			
 			// Don't want to continue ad potentially turn
 			// if we're backing up
-			return;
+			return false;
 		}
 		
 		// If we reached the end stop, we're done!
 		if (doneTarget.equals(currentPosition)) {
 			controller.setSpeedTarget(0);
 			done = true;
-			return;
+			return false;
 		}
 
 		// We've successfully reached the next tile
 		if (pathPeek().equals(currentPosition)) {
 			pathIndex++;
-		} else {
-			return;
+			return true;
+		}
+		return false;
+	}
+	
+	/**
+	 * Heads for the next tile of the path from the tile at
+	 * currentPosition, replanning first if the map has changed.
+	 * 
+	 * @param controller the controller using this strategy
+	 */
+	private void followPath(MyAIController controller) {
+		// Tiles have been revealed since the path was planned
+		if (planner != null && map.getVersion() != plannedVersion &&
+			!controller.getReverseMode()) {
+			replan(controller);
 		}
 		
 		// Compare the orientation of the car vs the path
@@ -133,7 +215,11 @@ public class ExiterStrategy extends ControlStrategy {
 	 */
 	private void initialiseWithController(MyAIController controller) {
 		initialisedWithController = true;
-		currentPosition = new Coordinate(controller.getPosition());
+		currentPosition = new Coordinate(controller.getTileX(),
+										controller.getTileY());
+		
+		// Anything entered before now is behind us
+		enteredTiles.clear();
 		doneTarget = path.get(path.size() - 1);
 		
 		WorldSpatial.Direction currentDir = controller.getOrientation();
@@ -169,29 +255,39 @@ public class ExiterStrategy extends ControlStrategy {
 	}
 
 	/**
-	 * Whether the controller should change strategy, since this strategy
-	 * should lead the car to the exit this will always be false.
-	 */
-	@Override
-	public boolean shouldChangeStrategy(MyAIController controller) {
-		return false;
-	}
-	
-	/**
-	 * Whether or not the position of the car has changed since the
-	 * last update, will update currentPosition if this is the case.
+	 * Asks the planner for a path from the current position and
+	 * switches to it if it's cheaper than the rest of the current
+	 * path, and the car can turn onto it without reversing.
 	 * 
-	 * @param controller controller to check
-	 * @return whether the position has changed
+	 * @param controller the controller using this strategy
 	 */
-	private boolean positionChanged(MyAIController controller) {
-		Coordinate newPosition = new Coordinate(controller.getPosition());
+	private void replan(MyAIController controller) {
+		plannedVersion = map.getVersion();
 		
-		if (!newPosition.equals(currentPosition)) {
-			currentPosition = newPosition;
-			return true;
+		ArrayList<Coordinate> newPath = planner.plan(currentPosition);
+		if (newPath == null ||
+			planner.lastCost() >= planner.remainingCost(path, pathIndex)) {
+			return;
+		}
+		
+		// We can only turn left or right between tiles
+		WorldSpatial.Direction behind =
+			toLeft(toLeft(controller.getOrientation()));
+		if (behind.equals(directionBetween(newPath.get(0),
+										   newPath.get(1)))) {
+			return;
 		}
 		
+		path = newPath;
+		pathIndex = 0;
+	}
+
+	/**
+	 * Whether the controller should change strategy, since this strategy
+	 * should lead the car to the exit this will always be false.
+	 */
+	@Override
+	public boolean shouldChangeStrategy(MyAIController controller) {
 		return false;
 	}
 	
@@ -302,9 +398,8 @@ public class ExiterStrategy extends ControlStrategy {
 	 * @return tile behind the controller
 	 */
 	private Coordinate getReverseTarget(MyAIController controller) {
-		Coordinate initial = new Coordinate(controller.getPosition());
-		int x = initial.x;
-		int y = initial.y;
+		int x = controller.getTileX();
+		int y = controller.getTileY();
 		
 		switch (controller.getOrientation()) {
 		case NORTH:
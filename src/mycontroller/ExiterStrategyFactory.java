@@ -5,200 +5,128 @@
 package mycontroller;
 
 import java.util.ArrayList;
-import java.util.LinkedList;
-import java.util.HashMap;
-import java.util.HashSet;
 
 import utilities.Coordinate;
 
 /**
  * The ExiterStrategyFactory is a singleton used to construct
- * ExiterStrategy classes. It takes an AIMap along with start and
- * end positions and runs a breadth first search to construct
- * a path for the ExiterStrategy to be followed by the controller.
+ * ExiterStrategy classes. It takes an AIMap along with the car's
+ * position and uses an IncrementalPlanner to construct a path for
+ * the ExiterStrategy to be followed by the controller. The planner
+ * is kept between calls, so later plans only repair what has changed.
+ * 
+ * The planner is kept by the map it plans over, so it goes when the
+ * map does. Simulations may run side by side on different threads,
+ * each with its own map.
  */
 public class ExiterStrategyFactory {
 	
 	/** The only instance of this singleton class. */
-    private static ExiterStrategyFactory instance;
+    private static final ExiterStrategyFactory instance =
+    		new ExiterStrategyFactory();
     
-    /**
-     * Returns the instance of ExiterStrategyFactory. If there hasn't been
-     * an instance initialised one will be created.
-     * @return
-     */
-    public static ExiterStrategyFactory getInstance() {
-        if (instance == null) {
-            instance = new ExiterStrategyFactory();
-        }
-        
-        return instance;
-    }
+    /** The cost of driving onto each kind of tile. */
+    private volatile TileCosts costs = new TileCosts();
     
     /**
-     * Returns a new ExiterStrategy given a controllers current position
-     * and an AIMap. It will try to create a path from the cars current
-     * position to the exit that avoid traps, but failing this it will include
-     * some traps.
-     * 
-     * @param position cars current position
-     * @param map the AIMap we are traversing
-     * @return the appropriate ExiterStrategy
+     * The planner a map is using and what it was made with.
      */
-    public ExiterStrategy getExiterStrategy(Coordinate position, AIMap map) {
-    	Coordinate exit = map.getExit();
-        ArrayList<Coordinate> path =
-        		performBreadthFirstSearch(position, exit, map);
-        
-        // If we couldn't build a path without traps
-        if (path == null) {
-        	path = performBreadthFirstSearchWithTraps(position, exit, map);
-        }
-        
-        // If we still can't build a path then the exit is unreachable at
-        // the moment
-        if (path == null) {
-        	return null;
-        }
-
-        return new ExiterStrategy(path);
+    static class Planning {
+    	
+    	/** The costs the planner was made with. */
+    	private TileCosts plannedCosts;
+    	
+    	/** The planner for the map, null until its exit is found. */
+    	private IncrementalPlanner planner;
+    	
+    	/**
+    	 * The map version at which the exit was last found unreachable,
+    	 * -1 if it wasn't.
+    	 */
+    	private int unreachableVersion = -1;
+    	
+    	/**
+    	 * Throws away the current planner, so the next plan is made
+    	 * from scratch against the given costs.
+    	 * 
+    	 * @param costs the costs to plan with next
+    	 */
+    	private void reset(TileCosts costs) {
+    		if (planner != null) {
+    			planner.detach();
+    			planner = null;
+    		}
+    		plannedCosts = costs;
+    		unreachableVersion = -1;
+    	}
     }
     
     /**
-     * performBreadthFirstSearch performs a BFS on the AIMap to construct
-     * a path of coordinates from start to end (inclusive).
-     * 
-     * @param start the coordinate of the start of the path
-     * @param end the coordinate of the end of the path
-     * @param map the AIMap that the BFS is performed on
-     * @param includeTraps whether or not to count traps as traversable
-     * @return path from start to end as a list of coordinates
+     * Returns the instance of ExiterStrategyFactory.
+     * @return
      */
-    private ArrayList<Coordinate> performBreadthFirstSearch(
-    		Coordinate start, Coordinate end,
-    		AIMap map, boolean includeTraps) {
-
-    	// A set of searched coordinates and the BFS queue
-    	HashSet<Coordinate> searched = new HashSet<Coordinate>();
-        LinkedList<Coordinate> queue = new LinkedList<Coordinate>();
-
-        // A map from coordinate to its parent, doesn't include start
-        HashMap<Coordinate, Coordinate> parents =
-        		new HashMap<Coordinate, Coordinate>();
-
-        // The coordinates which are known from the map
-        ArrayList<Coordinate> knownCoordinates = map.getKnownCoordinates();
-        
-        searched.add(start);
-        queue.add(start);
-
-        // While the queue is empty we want to take the head of the
-        // queue and search its neighbours
-        while (!queue.isEmpty()) {
-            Coordinate coordinate = queue.remove();
-            AITile tile = map.tileAt(coordinate);
-            
-            if (coordinate.equals(end)) {
-            	return pathFromParents(parents, end);
-            }
-
-            // If its not a traversable tile we don't want to add
-            // its neighbours
-            if (!(includeTraps && tile.isTrap()) && tile.blocking()) {
-                continue;
-            }
-
-            ArrayList<Coordinate> neighbours =
-        		getNeighbours(coordinate, knownCoordinates);
-            for (Coordinate neighbour : neighbours) {
-            	if (!searched.contains(neighbour)) {
-            		searched.add(neighbour);
-            		queue.add(neighbour);
-            		parents.put(neighbour, coordinate);
-            	}
-            }
-        }
-
-        // Error, didn't find exit
-        return null;
+    public static ExiterStrategyFactory getInstance() {
+        return instance;
     }
     
     /**
-     * performBreadthFirstSearch performs a BFS on the AIMap to construct
-     * a path of coordinates from start to end (inclusive). Doesn't include
-     * traps.
+     * Sets how much driving onto each kind of trap costs, relative to
+     * a cost of 1 for any other tile. Higher costs mean longer detours
+     * will be taken to avoid that trap. Plans already underway pick up
+     * the new costs the next time they ask for a strategy.
      * 
-     * @param start the coordinate of the start of the path
-     * @param end the coordinate of the end of the path
-     * @param map the AIMap that the BFS is performed on
-     * @return path from start to end as a list of coordinates
+     * @param lava cost of a lava tile
+     * @param mud cost of a mud tile
+     * @param grass cost of a grass tile
+     * @param other cost of any other kind of trap
      */
-    private ArrayList<Coordinate> performBreadthFirstSearch(
-    		Coordinate start, Coordinate end, AIMap map) {
-    	return performBreadthFirstSearch(start, end, map, false);
-	}
-
-    /**
-     * performBreadthFirstSearch performs a BFS on the AIMap to construct
-     * a path of coordinates from start to end (inclusive). Traps are
-     * included as traversable coordinates.
-     * 
-     * @param start the coordinate of the start of the path
-     * @param end the coordinate of the end of the path
-     * @param map the AIMap that the BFS is performed on
-     * @return path from start to end as a list of coordinates
-     */
-    private ArrayList<Coordinate> performBreadthFirstSearchWithTraps(
-    		Coordinate start, Coordinate end, AIMap map) {
-    	return performBreadthFirstSearch(start, end, map, true);
+    public void setTrapCosts(int lava, int mud, int grass, int other) {
+    	costs = new TileCosts(lava, mud, grass, other);
     }
     
     /**
-     * Takes a map of each searched coordinate's parents and constructs
-     * a path to a given end point from the start (the only coordinate
-     * without a parent).
+     * Returns a new ExiterStrategy given a controllers current position
+     * and an AIMap. It will create the cheapest path from the cars current
+     * position to the exit, where traps cost more to cross than other tiles
+     * depending on their kind.
+     * 
+     * An unreachable exit stays unreachable from anywhere the car can
+     * drive to until the map changes, so that answer is reused
+     * regardless of position.
      * 
-     * @param parents hash map mapping coordinate to its parent
-     * @param exit coordinate of the end of the path
-     * @return the path as a list of coordinates
+     * @param position cars current position
+     * @param map the AIMap we are traversing
+     * @return the appropriate ExiterStrategy, null if there is no path
      */
-    private ArrayList<Coordinate> pathFromParents(
-    		HashMap<Coordinate, Coordinate> parents, Coordinate exit) {
-    	Coordinate current = exit;
-        ArrayList<Coordinate> path = new ArrayList<Coordinate>();
-        path.add(0, exit);
+    public ExiterStrategy getExiterStrategy(Coordinate position, AIMap map) {
+    	Planning current = map.getPlanning();
+    	if (current == null) {
+    		current = new Planning();
+    		map.setPlanning(current);
+    	}
+    	TileCosts currentCosts = costs;
+    	if (currentCosts != current.plannedCosts) {
+    		current.reset(currentCosts);
+    	}
+    	if (map.getExit() == null ||
+    		map.getVersion() == current.unreachableVersion) {
+    		return null;
+    	}
+    	
+    	if (current.planner == null) {
+    		current.planner = new IncrementalPlanner(map, map.getExit(),
+    												 currentCosts);
+    	}
+    	ArrayList<Coordinate> path = current.planner.plan(position);
         
-        // Until we find a coordinate without a parent (the start)
-        // insert the parent of the current coordinate at the start
-        // of the path
-        while (parents.containsKey(current)) {
-        	current = parents.get(current);
-        	path.add(0, current);
+        // If we can't build a path then the exit is unreachable at
+        // the moment
+        if (path == null) {
+        	current.unreachableVersion = map.getVersion();
+        	return null;
         }
-        
-        return path;
-    }
+        current.unreachableVersion = -1;
 
-    /**
-     * Returns the known coordinates that are adjacent to the current
-     * coordinate (no including diagonals).
-     * 
-     * @param current current coordinate
-     * @param knownCoordinates list of all known coordinates
-     * @return a list of the neighbours
-     */
-    public ArrayList<Coordinate> getNeighbours(Coordinate current,
-    		ArrayList<Coordinate> knownCoordinates) {
-        ArrayList<Coordinate> neighbours = new ArrayList<Coordinate>();
-
-        for (Coordinate candidate : knownCoordinates) {
-        	int dx = Math.abs(current.x - candidate.x);
-        	int dy = Math.abs(current.y - candidate.y);
-            if (dx + dy == 1) {
-                neighbours.add(candidate);
-            }
-        }
-        
-        return neighbours;
+        return new ExiterStrategy(path, map, current.planner);
     }
 }
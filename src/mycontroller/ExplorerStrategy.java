@@ -29,8 +29,11 @@ public class ExplorerStrategy extends ControlStrategy {
 	/** The map the car is exploring on. */
 	private AIMap map;
 	
-	/** The last position the car was at. */
-	private String previousPosition;
+	/**
+	 * The tile the car is on, moved to the car's tile each update
+	 * rather than reallocated, and only read by the map.
+	 */
+	private Coordinate position = new Coordinate(0, 0);
 
 	/**
 	 * Initialises the ExplorerStrategy, creating a new AIMap. 
@@ -46,12 +49,10 @@ public class ExplorerStrategy extends ControlStrategy {
 	 */
 	@Override
 	public void update(MyAIController controller) {
-		// Update Map
-		map.update(controller.getView());
+		// Update Map with only the tiles that have come into view
+		controller.visitRevealedTiles(map);
 		WorldSpatial.Direction orientation = controller.getOrientation();
-		Coordinate pos = new Coordinate(controller.getPosition());
-
-		System.out.println(state);
+		Coordinate pos = moveTo(controller);
 
 		switch (state) {
 		case NORMAL:
@@ -88,6 +89,18 @@ public class ExplorerStrategy extends ControlStrategy {
 		return map;
 	}
 
+	/**
+	 * Moves position to the tile the controller's car is on.
+	 * 
+	 * @param controller the MyAIController being used
+	 * @return position, at the car's tile
+	 */
+	private Coordinate moveTo(MyAIController controller) {
+		position.x = controller.getTileX();
+		position.y = controller.getTileY();
+		return position;
+	}
+
 	/** 
 	 * Checks to see if there are tiles blocking in a specific
 	 * direction, in range of WALL_THRESHOLD.
@@ -139,7 +152,7 @@ public class ExplorerStrategy extends ControlStrategy {
 	 */
 	private void dealWithDeadEnd(MyAIController controller) {
 		WorldSpatial.Direction orientation = controller.getOrientation();
-		Coordinate pos = new Coordinate(controller.getPosition());
+		Coordinate pos = moveTo(controller);
 
 		// Check the space on left and right of the car
 		int spaceOnRight = map.spaceInDirection(pos, orientation,
@@ -206,25 +219,23 @@ public class ExplorerStrategy extends ControlStrategy {
 		} else {
 			controller.performTurn(WorldSpatial.RelativeDirection.LEFT);
 			state = ExplorerState.JUST_TURNED_LEFT;
-			previousPosition = controller.getPosition();
 		}
 	}
 	
 	/**
 	 * Decision logic to apply when car is in JUST_TURNED_LEFT state and
-	 * update() is called. Car can only move into WALL_FOLLOWING state
-	 * when it has moved tile positions.
+	 * update() is called. Car moves into WALL_FOLLOWING state as
+	 * soon as it is following a wall again. (The check that it had
+	 * also moved tiles compared position strings by identity, so
+	 * it never held the car back, and the explorer is tuned to that.)
 	 * 
 	 * @param controller the MyAIController used
 	 * @param pos the Coordinate the car is on
 	 * @param orientation the orientation of the car
 	 */
 	private void updateJustTurnedLeft(MyAIController controller, Coordinate pos, WorldSpatial.Direction orientation) {
-		// Check car has moved positions
-		if (controller.getPosition() != previousPosition) {
-			if (checkFollowingWall(pos, orientation)) {
-				state = ExplorerState.WALL_FOLLOWING;
-			}
+		if (checkFollowingWall(pos, orientation)) {
+			state = ExplorerState.WALL_FOLLOWING;
 		}
 	}
 	
@@ -0,0 +1,435 @@
+/*
+ * SWEN30006 Project Part C
+ * Group 109: Matt Perrott, Tobias Edwards, Kinsey Reeves
+ */
+package mycontroller;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import utilities.Coordinate;
+
+/**
+ * Plans the cheapest path from the car to a fixed goal over an AIMap
+ * using D* Lite. The search runs backwards from the goal and keeps its
+ * state between plans, so when tiles are revealed or the car moves only
+ * the part of the search those changes affect is redone.
+ *
+ * The search covers a grid around the known part of the map. If a tile
+ * becomes known outside that grid the grid is rebuilt, with some slack,
+ * and the next plan starts from scratch.
+ */
+public class IncrementalPlanner implements AIMap.TileListener {
+
+	/** Cost used for unreachable tiles, small enough not to overflow. */
+	private static final int INFINITY = Integer.MAX_VALUE / 4;
+
+	/** How many tiles of slack to leave around the known map. */
+	private static final int PADDING = 16;
+
+	/** The x offsets of a tile's four neighbours. */
+	private static final int[] NEIGHBOUR_DX = {0, 1, 0, -1};
+
+	/** The y offsets of a tile's four neighbours. */
+	private static final int[] NEIGHBOUR_DY = {1, 0, -1, 0};
+
+	/** The map being planned over. */
+	private final AIMap map;
+
+	/** The costs of driving onto each kind of tile. */
+	private final TileCosts costs;
+
+	/** The tile every plan ends at. */
+	private final int goalX;
+	private final int goalY;
+
+	/** Whether the search grid matches the map, if not it is rebuilt. */
+	private boolean initialised;
+
+	/** The search grid's position and dimensions. */
+	private int minX;
+	private int minY;
+	private int width;
+	private int height;
+
+	/**
+	 * Each tile's cost to the goal as last expanded, and as implied by
+	 * its neighbours. The tile is up to date when these agree.
+	 */
+	private int[] costToGoal;
+	private int[] lookahead;
+
+	/** Tiles whose two costs disagree, ordered by D* Lite's key. */
+	private IndexedMinHeap open;
+
+	/** Accumulated heuristic offset from the car moving, D* Lite's km. */
+	private int keyModifier;
+
+	/** The start of the last plan. */
+	private int lastStartX;
+	private int lastStartY;
+
+	/** Tiles (packed by Coordinate.pack) changed since the last plan. */
+	private long[] changed;
+	private int changedCount;
+
+	/**
+	 * Initialises a planner to the given goal, which starts listening to
+	 * the map for changes.
+	 *
+	 * @param map the map to plan over
+	 * @param goal the tile each path should end on
+	 * @param costs the costs of driving onto each kind of tile
+	 */
+	public IncrementalPlanner(AIMap map, Coordinate goal, TileCosts costs) {
+		this.map = map;
+		this.costs = costs;
+		this.goalX = goal.x;
+		this.goalY = goal.y;
+		this.initialised = false;
+		this.changed = new long[32];
+		this.changedCount = 0;
+		map.addTileListener(this);
+	}
+
+	/**
+	 * Stops listening to the map, after which the planner must not be
+	 * used.
+	 */
+	public void detach() {
+		map.removeTileListener(this);
+	}
+
+	/**
+	 * Records that a tile has changed, to be repaired on the next plan.
+	 */
+	@Override
+	public void tileChanged(int x, int y) {
+		if (!initialised) {
+			return;
+		}
+		if (!inGrid(x, y)) {
+			initialised = false;
+			return;
+		}
+
+		if (changedCount == changed.length) {
+			changed = Arrays.copyOf(changed, changed.length * 2);
+		}
+		changed[changedCount++] = Coordinate.pack(x, y);
+	}
+
+	/**
+	 * Returns the cheapest path from start to the goal (inclusive), or
+	 * null if the goal can't be reached over known tiles.
+	 *
+	 * @param start the tile the path should start on
+	 * @return the path as a list of coordinates
+	 */
+	public ArrayList<Coordinate> plan(Coordinate start) {
+		if (!map.isKnown(start.x, start.y) || !map.isKnown(goalX, goalY)) {
+			return null;
+		}
+
+		if (!initialised) {
+			initialise(start);
+		} else {
+			// The car moving shifts every heuristic by at most this much
+			keyModifier += distance(lastStartX, lastStartY, start.x, start.y);
+			lastStartX = start.x;
+			lastStartY = start.y;
+
+			for (int i = 0; i < changedCount; i++) {
+				repair(Coordinate.unpackX(changed[i]),
+					   Coordinate.unpackY(changed[i]));
+			}
+		}
+		changedCount = 0;
+
+		int startIndex = index(start.x, start.y);
+		computeShortestPath(startIndex);
+
+		if (costToGoal[startIndex] >= INFINITY) {
+			return null;
+		}
+		return extractPath(startIndex);
+	}
+
+	/**
+	 * Returns the cost of driving the rest of a path, from the tile at
+	 * a given index onwards, according to the map as it is now.
+	 *
+	 * @param path the path to cost
+	 * @param from index of the tile the car is on
+	 * @return the cost of the remaining path, or Integer.MAX_VALUE if
+	 * 		   some of it can no longer be driven
+	 */
+	public int remainingCost(ArrayList<Coordinate> path, int from) {
+		int total = 0;
+		for (int i = from + 1; i < path.size(); i++) {
+			Coordinate tile = path.get(i);
+			int step = costs.stepCost(map.flagsAt(tile.x, tile.y));
+			if (step == TileCosts.IMPASSABLE) {
+				return Integer.MAX_VALUE;
+			}
+			total += step;
+		}
+		return total;
+	}
+
+	/**
+	 * Returns the cost of the last path planned.
+	 *
+	 * @return cost of the last path, Integer.MAX_VALUE if there was none
+	 */
+	public int lastCost() {
+		if (!initialised) {
+			return Integer.MAX_VALUE;
+		}
+		int cost = costToGoal[index(lastStartX, lastStartY)];
+		return cost >= INFINITY ? Integer.MAX_VALUE : cost;
+	}
+
+	/**
+	 * Builds a fresh search grid covering the known map and seeds the
+	 * search from the goal.
+	 *
+	 * @param start the tile the first plan starts on
+	 */
+	private void initialise(Coordinate start) {
+		minX = map.getMinKnownX() - PADDING;
+		minY = map.getMinKnownY() - PADDING;
+		width = map.getMaxKnownX() + PADDING - minX + 1;
+		height = map.getMaxKnownY() + PADDING - minY + 1;
+
+		costToGoal = new int[width * height];
+		lookahead = new int[width * height];
+		Arrays.fill(costToGoal, INFINITY);
+		Arrays.fill(lookahead, INFINITY);
+		open = new IndexedMinHeap(width * height);
+
+		keyModifier = 0;
+		lastStartX = start.x;
+		lastStartY = start.y;
+
+		int goal = index(goalX, goalY);
+		lookahead[goal] = 0;
+		open.insertOrUpdate(goal, key(goal));
+		initialised = true;
+	}
+
+	/**
+	 * Brings the search up to date after the tile at (x, y) changed,
+	 * which affects the tile itself and every edge into it.
+	 *
+	 * @param x x coordinate of the changed tile
+	 * @param y y coordinate of the changed tile
+	 */
+	private void repair(int x, int y) {
+		int index = index(x, y);
+		updateTile(index);
+		for (int i = 0; i < NEIGHBOUR_DX.length; i++) {
+			int neighbourX = x + NEIGHBOUR_DX[i];
+			int neighbourY = y + NEIGHBOUR_DY[i];
+			if (inGrid(neighbourX, neighbourY)) {
+				updateTile(index(neighbourX, neighbourY));
+			}
+		}
+	}
+
+	/**
+	 * Expands tiles until the start's cost to the goal is settled.
+	 *
+	 * @param start grid index of the start
+	 */
+	private void computeShortestPath(int start) {
+		while (!open.isEmpty() &&
+			   (open.minKey() < key(start) ||
+				lookahead[start] != costToGoal[start])) {
+			long oldKey = open.minKey();
+			int index = open.poll();
+			long newKey = key(index);
+
+			if (oldKey < newKey) {
+				// Its key went stale as the car moved
+				open.insertOrUpdate(index, newKey);
+			} else if (costToGoal[index] > lookahead[index]) {
+				// Got cheaper, neighbours may now go through it
+				costToGoal[index] = lookahead[index];
+				updateNeighbours(index);
+			} else {
+				// Got dearer, re-derive it and everything through it
+				costToGoal[index] = INFINITY;
+				updateTile(index);
+				updateNeighbours(index);
+			}
+		}
+	}
+
+	/**
+	 * Recomputes the lookahead cost of each neighbour of a tile.
+	 *
+	 * @param index grid index of the tile
+	 */
+	private void updateNeighbours(int index) {
+		int x = minX + index % width;
+		int y = minY + index / width;
+		for (int i = 0; i < NEIGHBOUR_DX.length; i++) {
+			int neighbourX = x + NEIGHBOUR_DX[i];
+			int neighbourY = y + NEIGHBOUR_DY[i];
+			if (inGrid(neighbourX, neighbourY)) {
+				updateTile(index(neighbourX, neighbourY));
+			}
+		}
+	}
+
+	/**
+	 * Recomputes a tile's lookahead cost from its neighbours and puts it
+	 * on (or takes it off) the open heap accordingly.
+	 *
+	 * @param index grid index of the tile
+	 */
+	private void updateTile(int index) {
+		int x = minX + index % width;
+		int y = minY + index / width;
+
+		if (x != goalX || y != goalY) {
+			int best = INFINITY;
+			if (stepCost(x, y) != TileCosts.IMPASSABLE) {
+				for (int i = 0; i < NEIGHBOUR_DX.length; i++) {
+					int neighbourX = x + NEIGHBOUR_DX[i];
+					int neighbourY = y + NEIGHBOUR_DY[i];
+					int step = stepCost(neighbourX, neighbourY);
+					if (step == TileCosts.IMPASSABLE) {
+						continue;
+					}
+					best = Math.min(best, step +
+							costToGoal[index(neighbourX, neighbourY)]);
+				}
+			}
+			lookahead[index] = Math.min(best, INFINITY);
+		}
+
+		if (costToGoal[index] != lookahead[index]) {
+			open.insertOrUpdate(index, key(index));
+		} else {
+			open.remove(index);
+		}
+	}
+
+	/**
+	 * Follows the cheapest neighbours from the start to the goal.
+	 *
+	 * @param start grid index of the start
+	 * @return the path, or null if it is broken
+	 */
+	private ArrayList<Coordinate> extractPath(int start) {
+		ArrayList<Coordinate> path = new ArrayList<Coordinate>();
+		int x = minX + start % width;
+		int y = minY + start / width;
+		path.add(new Coordinate(x, y));
+
+		// A settled path can't be longer than the grid
+		for (int steps = 0; steps < width * height; steps++) {
+			if (x == goalX && y == goalY) {
+				return path;
+			}
+
+			int bestX = x;
+			int bestY = y;
+			int best = INFINITY;
+			for (int i = 0; i < NEIGHBOUR_DX.length; i++) {
+				int neighbourX = x + NEIGHBOUR_DX[i];
+				int neighbourY = y + NEIGHBOUR_DY[i];
+				int step = stepCost(neighbourX, neighbourY);
+				if (step == TileCosts.IMPASSABLE) {
+					continue;
+				}
+				int cost = step + costToGoal[index(neighbourX, neighbourY)];
+				if (cost < best) {
+					best = cost;
+					bestX = neighbourX;
+					bestY = neighbourY;
+				}
+			}
+
+			if (best >= INFINITY) {
+				return null;
+			}
+			x = bestX;
+			y = bestY;
+			path.add(new Coordinate(x, y));
+		}
+
+		return null;
+	}
+
+	/**
+	 * Returns D* Lite's key for a tile, packed so that comparing keys
+	 * as longs orders by the first component then the second.
+	 *
+	 * @param index grid index of the tile
+	 * @return the tile's key
+	 */
+	private long key(int index) {
+		int cost = Math.min(costToGoal[index], lookahead[index]);
+		if (cost >= INFINITY) {
+			return ((long) INFINITY << 32) | INFINITY;
+		}
+
+		int x = minX + index % width;
+		int y = minY + index / width;
+		long first = cost + distance(lastStartX, lastStartY, x, y) +
+					 (long) keyModifier;
+		return (first << 32) | cost;
+	}
+
+	/**
+	 * Returns the cost of driving onto a tile, IMPASSABLE if it is off
+	 * the grid or can't be driven onto.
+	 *
+	 * @param x x coordinate of the tile
+	 * @param y y coordinate of the tile
+	 * @return the cost of entering the tile
+	 */
+	private int stepCost(int x, int y) {
+		if (!inGrid(x, y)) {
+			return TileCosts.IMPASSABLE;
+		}
+		return costs.stepCost(map.flagsAt(x, y));
+	}
+
+	/**
+	 * Whether a tile is on the search grid.
+	 *
+	 * @param x x coordinate of the tile
+	 * @param y y coordinate of the tile
+	 * @return whether it is on the grid
+	 */
+	private boolean inGrid(int x, int y) {
+		return x >= minX && y >= minY &&
+			   x < minX + width && y < minY + height;
+	}
+
+	/**
+	 * Returns a tile's index in the search grid.
+	 *
+	 * @param x x coordinate of the tile
+	 * @param y y coordinate of the tile
+	 * @return the tile's grid index
+	 */
+	private int index(int x, int y) {
+		return (x - minX) + (y - minY) * width;
+	}
+
+	/**
+	 * Returns the heuristic distance between two tiles, which never
+	 * overestimates the cost of driving between them.
+	 *
+	 * @return Manhattan distance scaled by the cheapest tile cost
+	 */
+	private static int distance(int x1, int y1, int x2, int y2) {
+		return (Math.abs(x1 - x2) + Math.abs(y1 - y2)) * TileCosts.FREE_COST;
+	}
+
+}
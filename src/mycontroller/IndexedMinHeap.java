@@ -0,0 +1,173 @@
+/*
+ * SWEN30006 Project Part C
+ * Group 109: Matt Perrott, Tobias Edwards, Kinsey Reeves
+ */
+package mycontroller;
+
+import java.util.Arrays;
+
+/**
+ * A binary min-heap over the integers 0 to capacity - 1, each
+ * with a long key. An index is in the heap at most once, and its
+ * key can be changed or it can be removed in O(log n), which
+ * is what the path planners need to revise their frontiers.
+ */
+class IndexedMinHeap {
+
+	/** The indices in heap order. */
+	private int[] heap;
+
+	/** Each index's position in heap, -1 if it isn't in the heap. */
+	private int[] positions;
+
+	/** Each index's key, only meaningful while it is in the heap. */
+	private long[] keys;
+
+	/** The number of indices in the heap. */
+	private int size;
+
+	/**
+	 * Initialises an empty heap.
+	 *
+	 * @param capacity one more than the largest index that can be stored
+	 */
+	IndexedMinHeap(int capacity) {
+		heap = new int[capacity];
+		positions = new int[capacity];
+		keys = new long[capacity];
+		Arrays.fill(positions, -1);
+		size = 0;
+	}
+
+	/**
+	 * Whether the heap is empty.
+	 *
+	 * @return whether there are no indices in the heap
+	 */
+	boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Returns the smallest key in the heap.
+	 *
+	 * @return the smallest key, Long.MAX_VALUE if empty
+	 */
+	long minKey() {
+		return size == 0 ? Long.MAX_VALUE : keys[heap[0]];
+	}
+
+	/**
+	 * Removes and returns the index with the smallest key.
+	 *
+	 * @return index with the smallest key
+	 */
+	int poll() {
+		int min = heap[0];
+		remove(min);
+		return min;
+	}
+
+	/**
+	 * Adds an index to the heap, or changes its key if it is
+	 * already there.
+	 *
+	 * @param index index to add or update
+	 * @param key its new key
+	 */
+	void insertOrUpdate(int index, long key) {
+		int position = positions[index];
+		if (position < 0) {
+			position = size++;
+			heap[position] = index;
+			positions[index] = position;
+			keys[index] = key;
+			siftUp(position);
+		} else {
+			long oldKey = keys[index];
+			keys[index] = key;
+			if (key < oldKey) {
+				siftUp(position);
+			} else {
+				siftDown(position);
+			}
+		}
+	}
+
+	/**
+	 * Removes an index from the heap if it is there.
+	 *
+	 * @param index index to remove
+	 */
+	void remove(int index) {
+		int position = positions[index];
+		if (position < 0) {
+			return;
+		}
+
+		positions[index] = -1;
+		size--;
+		if (position == size) {
+			return;
+		}
+
+		// Fill the hole with the last entry and restore heap order
+		int last = heap[size];
+		heap[position] = last;
+		positions[last] = position;
+		siftUp(position);
+		siftDown(positions[last]);
+	}
+
+	/**
+	 * Moves the entry at a position up until its parent is no larger.
+	 *
+	 * @param position position in heap
+	 */
+	private void siftUp(int position) {
+		int index = heap[position];
+		long key = keys[index];
+		while (position > 0) {
+			int parent = (position - 1) >>> 1;
+			int parentIndex = heap[parent];
+			if (keys[parentIndex] <= key) {
+				break;
+			}
+			heap[position] = parentIndex;
+			positions[parentIndex] = position;
+			position = parent;
+		}
+		heap[position] = index;
+		positions[index] = position;
+	}
+
+	/**
+	 * Moves the entry at a position down until its children are no
+	 * smaller.
+	 *
+	 * @param position position in heap
+	 */
+	private void siftDown(int position) {
+		int index = heap[position];
+		long key = keys[index];
+		while (true) {
+			int child = 2 * position + 1;
+			if (child >= size) {
+				break;
+			}
+			if (child + 1 < size && keys[heap[child + 1]] < keys[heap[child]]) {
+				child++;
+			}
+			int childIndex = heap[child];
+			if (keys[childIndex] >= key) {
+				break;
+			}
+			heap[position] = childIndex;
+			positions[childIndex] = position;
+			position = child;
+		}
+		heap[position] = index;
+		positions[index] = position;
+	}
+
+}
@@ -4,24 +4,55 @@
  */
 package mycontroller;
 
+import tiles.GrassTrap;
+import tiles.LavaTrap;
 import tiles.MapTile;
-import tiles.TrapTile;
+import tiles.MudTrap;
 import tiles.UtilityTile;
 
 /**
  * A KnownAITile is an AITile that the controller has seen
- * and we can be sure of its attributes.
+ * and we can be sure of its attributes. Its attributes are
+ * packed into a flags byte, so one shared instance can stand
+ * for every tile with the same flags.
  */
 public class KnownAITile extends AITile {
 
-	/** The 4 types of tile we know and care about. */
-	private enum KnownAITileType {FREE, WALL, TRAP, EXIT};
+	/** Set on every tile that has been seen. */
+	static final byte KNOWN = 1;
 
-	/** A reference to the underlying MapTile. */
-	private MapTile tile;
-	
-	/** The simpler to check tile type. */
-	private KnownAITileType type;
+	/** Set on tiles the car can't (or shouldn't) drive over. */
+	static final byte BLOCKING = 1 << 1;
+
+	/** Set on trap tiles. */
+	static final byte TRAP = 1 << 2;
+
+	/** Set on exit tiles. */
+	static final byte EXIT = 1 << 3;
+
+	/** The bits giving which kind of trap a trap tile is. */
+	static final byte TRAP_KIND = 3 << 4;
+
+	/** Trap kinds, within the TRAP_KIND bits. */
+	static final byte TRAP_OTHER = 0;
+	static final byte TRAP_LAVA = 1 << 4;
+	static final byte TRAP_MUD = 2 << 4;
+	static final byte TRAP_GRASS = 3 << 4;
+
+	/** Shared instances, indexed by flags. */
+	private static final KnownAITile[] FLYWEIGHTS = new KnownAITile[1 << 6];
+
+	static {
+		for (int flags = 0; flags < FLYWEIGHTS.length; flags++) {
+			FLYWEIGHTS[flags] = new KnownAITile((byte) flags, representativeOf((byte) flags));
+		}
+	}
+
+	/** The packed attributes of this tile. */
+	private final byte flags;
+
+	/** The tile this was made from, or one like it for a shared instance. */
+	private final MapTile tile;
 	
 	/**
 	 * Initiates a new known tile.
@@ -29,29 +60,100 @@ public class KnownAITile extends AITile {
 	 * @param tile underlying MapTile
 	 */
 	public KnownAITile(MapTile tile) {
+		this(flagsOf(tile), tile);
+	}
+
+	/**
+	 * Initiates a new known tile from packed flags.
+	 * 
+	 * @param flags packed attributes
+	 * @param tile underlying MapTile
+	 */
+	private KnownAITile(byte flags, MapTile tile) {
+		this.flags = (byte) (flags | KNOWN);
 		this.tile = tile;
-		
-		if (tile instanceof TrapTile) {
-			type = KnownAITileType.TRAP;
-		} else if (tile instanceof UtilityTile &&
-				  ((UtilityTile) tile).isExit()) {
-			type = KnownAITileType.EXIT;
-		} else if (tile.getName().equals("Wall")) {
-			type = KnownAITileType.WALL;
-		} else {
-			type = KnownAITileType.FREE;
+	}
+
+	/**
+	 * Returns the packed flags describing a MapTile. Walls and traps
+	 * are blocking, anything else (including the empty tiles beyond
+	 * the edge of the map) is free.
+	 * 
+	 * @param tile the tile to describe
+	 * @return flags for the tile
+	 */
+	static byte flagsOf(MapTile tile) {
+		switch (tile.getType()) {
+		case MapTile.TYPE_TRAP:
+			return KNOWN | BLOCKING | TRAP | TRAP_OTHER;
+		case MapTile.TYPE_LAVA:
+			return KNOWN | BLOCKING | TRAP | TRAP_LAVA;
+		case MapTile.TYPE_MUD:
+			return KNOWN | BLOCKING | TRAP | TRAP_MUD;
+		case MapTile.TYPE_GRASS:
+			return KNOWN | BLOCKING | TRAP | TRAP_GRASS;
+		case MapTile.TYPE_EXIT:
+			return KNOWN | EXIT;
+		case MapTile.TYPE_WALL:
+			return KNOWN | BLOCKING;
+		default:
+			return KNOWN;
+		}
+	}
+
+	/**
+	 * Returns a MapTile with the attributes given by a set of flags,
+	 * for the shared tiles, which aren't made from any one MapTile.
+	 * 
+	 * @param flags packed attributes
+	 * @return a tile those flags describe
+	 */
+	private static MapTile representativeOf(byte flags) {
+		if ((flags & TRAP) != 0) {
+			switch (flags & TRAP_KIND) {
+			case TRAP_LAVA:
+				return new LavaTrap();
+			case TRAP_MUD:
+				return new MudTrap();
+			case TRAP_GRASS:
+				return new GrassTrap();
+			default:
+				return new MapTile("Trap");
+			}
 		}
+		if ((flags & EXIT) != 0) {
+			return new UtilityTile("Utility", UtilityTile.Type.EXIT);
+		}
+		if ((flags & BLOCKING) != 0) {
+			return new MapTile("Wall");
+		}
+		return new MapTile("Road");
+	}
+
+	/**
+	 * Returns the shared tile for a set of flags.
+	 * 
+	 * @param flags packed attributes, must include KNOWN
+	 * @return the shared tile for those flags
+	 */
+	static KnownAITile forFlags(byte flags) {
+		return FLYWEIGHTS[flags];
 	}
 	
 	/**
-	 * Returns the underlying MapTile.
+	 * Returns the underlying MapTile. The tiles kept by AIMap are
+	 * shared, so theirs is a tile of the same type as the one seen,
+	 * not the one the world holds.
 	 * 
-	 * @return underlying MapTile
+	 * @return the underlying MapTile
+	 * @deprecated the tile's attributes are kept as flags, use
+	 *             blocking, isTrap and isExit instead
 	 */
+	@Deprecated
 	public MapTile getTile() {
 		return tile;
 	}
-	
+
 	/**
 	 * Whether or not the tile is known.
 	 * 
@@ -70,8 +172,7 @@ public class KnownAITile extends AITile {
 	 */
 	@Override
 	public boolean blocking() {
-		return !(type == KnownAITileType.FREE ||
-				 type == KnownAITileType.EXIT);
+		return (flags & BLOCKING) != 0;
 	}
 
 	/**
@@ -81,7 +182,7 @@ public class KnownAITile extends AITile {
 	 */
 	@Override
 	public boolean isTrap() {
-		return (type == KnownAITileType.TRAP);
+		return (flags & TRAP) != 0;
 	}
 
 	/**
@@ -91,7 +192,7 @@ public class KnownAITile extends AITile {
 	 */
 	@Override
 	public boolean isExit() {
-		return (type == KnownAITileType.EXIT);
+		return (flags & EXIT) != 0;
 	}
 
 }
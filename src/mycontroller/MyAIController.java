@@ -39,6 +39,15 @@ public class MyAIController extends CarController{
 	/** The number of degrees the car can be mis-aligned. */
 	private static final float MISALIGNED_THRESHOLD = 1;
 
+	/** The cardinal directions, in degrees, to align the car with. */
+	private static final float[] CARDINALS = {
+			WorldSpatial.EAST_DEGREE_MIN,
+			WorldSpatial.NORTH_DEGREE,
+			WorldSpatial.WEST_DEGREE,
+			WorldSpatial.SOUTH_DEGREE,
+			WorldSpatial.EAST_DEGREE_MAX
+		};
+
 	/** The actions that MyAIController can carry out. */
 	public enum AIAction {STOP, GO, TURN, UTURN, THREE_POINT};
 
@@ -87,6 +96,14 @@ public class MyAIController extends CarController{
 		previousMaxSpeed = MAX_SPEED;
 	}
 
+	/**
+	 * Passes each tile the car enters on to the current strategy.
+	 */
+	@Override
+	public void tileEntered(int x, int y) {
+		strategy.tileEntered(x, y);
+	}
+
 	/**
 	 * Update delegates the decision logic to the current control strategy,
 	 * deals with switching strategies when appropriate to do so, and
@@ -104,7 +121,7 @@ public class MyAIController extends CarController{
 				ExiterStrategy exiter = ExiterStrategyFactory
 						.getInstance()
 						.getExiterStrategy(
-								new Coordinate(getPosition()), map);
+								new Coordinate(getTileX(), getTileY()), map);
 			
 				// If exiter was null that would indicate that even though
 				// we have found the exit it is unreachable
@@ -454,15 +471,8 @@ public class MyAIController extends CarController{
 	private float degreesMisaligned() {
 		float current = getAngle();
 		float misaligned = WorldSpatial.EAST_DEGREE_MAX;
-		float cardinals[] = {
-				WorldSpatial.EAST_DEGREE_MIN,
-				WorldSpatial.NORTH_DEGREE,
-				WorldSpatial.WEST_DEGREE,
-				WorldSpatial.SOUTH_DEGREE,
-				WorldSpatial.EAST_DEGREE_MAX
-			};
-
-		for (float cardinal : cardinals) {
+
+		for (float cardinal : CARDINALS) {
 			if (Math.abs(cardinal - current) < Math.abs(misaligned)) {
 				misaligned = cardinal - current;
 			}
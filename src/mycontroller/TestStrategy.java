@@ -4,8 +4,6 @@
  */
 package mycontroller;
 
-import utilities.Coordinate;
-
 public class TestStrategy extends ControlStrategy {
 
 	private boolean reversing = false;
@@ -26,10 +24,7 @@ public class TestStrategy extends ControlStrategy {
 	}
 
 	private boolean at(MyAIController controller, int x, int y) {
-		Coordinate current = new Coordinate(controller.getPosition());
-		Coordinate target = new Coordinate(x, y);
-
-		return current.equals(target);
+		return controller.getTileX() == x && controller.getTileY() == y;
 	}
 
 }
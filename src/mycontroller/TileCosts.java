@@ -0,0 +1,101 @@
+/*
+ * SWEN30006 Project Part C
+ * Group 109: Matt Perrott, Tobias Edwards, Kinsey Reeves
+ */
+package mycontroller;
+
+/**
+ * The cost of driving onto each kind of tile, used by the
+ * path planner. Ordinary tiles cost 1 and each kind of trap
+ * costs more, so the planner only crosses traps when avoiding
+ * them would be a longer trip than they are worth.
+ */
+public class TileCosts {
+
+	/** The cost of driving onto a tile that isn't a trap. */
+	public static final int FREE_COST = 1;
+
+	/** Returned for tiles that can't be driven onto at all. */
+	public static final int IMPASSABLE = -1;
+
+	/**
+	 * The default cost of driving onto lava, at the exiter's speed
+	 * a tile of lava takes about a quarter of the car's health.
+	 */
+	private static final int DEFAULT_LAVA_COST = 25;
+
+	/**
+	 * The default cost of driving onto mud, which slows the car and
+	 * ends the game if it stalls there.
+	 */
+	private static final int DEFAULT_MUD_COST = 50;
+
+	/**
+	 * The default cost of driving onto grass, which only stops the car
+	 * from steering.
+	 */
+	private static final int DEFAULT_GRASS_COST = 5;
+
+	/** The default cost of driving onto a trap we have no cost for. */
+	private static final int DEFAULT_OTHER_TRAP_COST = 50;
+
+	/** The cost of driving onto each kind of trap. */
+	private final int lavaCost;
+	private final int mudCost;
+	private final int grassCost;
+	private final int otherTrapCost;
+
+	/**
+	 * Initialises the default costs.
+	 */
+	public TileCosts() {
+		this(DEFAULT_LAVA_COST, DEFAULT_MUD_COST,
+			 DEFAULT_GRASS_COST, DEFAULT_OTHER_TRAP_COST);
+	}
+
+	/**
+	 * Initialises the costs of each kind of trap. Costs below that of
+	 * an ordinary tile are raised to it.
+	 *
+	 * @param lava cost of a lava tile
+	 * @param mud cost of a mud tile
+	 * @param grass cost of a grass tile
+	 * @param other cost of any other kind of trap
+	 */
+	public TileCosts(int lava, int mud, int grass, int other) {
+		lavaCost = Math.max(lava, FREE_COST);
+		mudCost = Math.max(mud, FREE_COST);
+		grassCost = Math.max(grass, FREE_COST);
+		otherTrapCost = Math.max(other, FREE_COST);
+	}
+
+	/**
+	 * Returns the cost of driving onto a tile with the given flags,
+	 * or IMPASSABLE if it can't be driven onto at all.
+	 *
+	 * @param flags the tile's flags from the AIMap
+	 * @return the cost of entering the tile
+	 */
+	int stepCost(byte flags) {
+		if ((flags & KnownAITile.KNOWN) == 0) {
+			return IMPASSABLE;
+		}
+		if ((flags & KnownAITile.TRAP) != 0) {
+			switch (flags & KnownAITile.TRAP_KIND) {
+			case KnownAITile.TRAP_LAVA:
+				return lavaCost;
+			case KnownAITile.TRAP_MUD:
+				return mudCost;
+			case KnownAITile.TRAP_GRASS:
+				return grassCost;
+			default:
+				return otherTrapCost;
+			}
+		}
+		if ((flags & KnownAITile.BLOCKING) != 0) {
+			return IMPASSABLE;
+		}
+		return FREE_COST;
+	}
+
+}
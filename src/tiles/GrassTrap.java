@@ -3,6 +3,11 @@ package tiles;
 import world.Car;
 
 public class GrassTrap extends TrapTile {
+	
+	public GrassTrap() {
+		super(TYPE_GRASS);
+	}
+	
 	public void applyTo(Car car, float delta) {
 		// car.setVelocity(1f, 1f);
 	}
@@ -4,6 +4,10 @@ import world.Car;
 
 public class LavaTrap extends TrapTile {
 	
+	public LavaTrap() {
+		super(TYPE_LAVA);
+	}
+	
 	public void applyTo(Car car, float delta) {
 		car.reduceHealth(20 * delta);
 	}
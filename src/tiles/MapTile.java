@@ -10,14 +10,52 @@ package tiles;
 public class MapTile {
 	
 	public static final String tileNameSpace = "tiles.";
+	
+	/**
+	 * Type codes for every kind of tile, so the physics can switch on an
+	 * integer rather than compare names or test instanceof.
+	 */
+	public static final byte TYPE_EMPTY = 0;
+	public static final byte TYPE_ROAD = 1;
+	public static final byte TYPE_WALL = 2;
+	public static final byte TYPE_START = 3;
+	public static final byte TYPE_EXIT = 4;
+	public static final byte TYPE_TRAP = 5; // A trap of a kind without its own code
+	public static final byte TYPE_LAVA = 6;
+	public static final byte TYPE_MUD = 7;
+	public static final byte TYPE_GRASS = 8;
 
 	protected String name;
 	
+	protected final byte type;
+	
 	public MapTile(String layerName) {
+		this(layerName, typeOf(layerName));
+	}
+	
+	protected MapTile(String layerName, byte type) {
 		this.name = layerName;
+		this.type = type;
 	}
 
 	public String getName() {
 		return name;
 	}
+	
+	public byte getType() {
+		return type;
+	}
+	
+	private static byte typeOf(String layerName) {
+		switch(layerName){
+		case "Empty":
+			return TYPE_EMPTY;
+		case "Wall":
+			return TYPE_WALL;
+		case "Trap":
+			return TYPE_TRAP;
+		default:
+			return TYPE_ROAD;
+		}
+	}
 }
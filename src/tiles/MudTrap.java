@@ -7,6 +7,11 @@ import world.Car;
 public class MudTrap extends TrapTile {
 	
 	private float SLOWDOWN_FACTOR = 0.6f;
+	
+	public MudTrap() {
+		super(TYPE_MUD);
+	}
+	
 	public void applyTo(Car car, float delta) {
 		Vector2 currentSpeed = car.getRawVelocity();
 		float xReduction = currentSpeed.x*SLOWDOWN_FACTOR*delta;
@@ -0,0 +1,61 @@
+package tiles;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps the type property of trap tiles on a map to a factory for that kind of trap, so maps
+ * are loaded without looking classes up by name. New kinds of trap must be registered before
+ * a map using them is loaded.
+ */
+public class TrapRegistry {
+
+	public interface Factory {
+		TrapTile create();
+	}
+
+	private static final ConcurrentHashMap<String,Factory> factories = new ConcurrentHashMap<String,Factory>();
+
+	static {
+		register("LavaTrap", new Factory(){
+			@Override
+			public TrapTile create(){
+				return new LavaTrap();
+			}
+		});
+		register("MudTrap", new Factory(){
+			@Override
+			public TrapTile create(){
+				return new MudTrap();
+			}
+		});
+		register("GrassTrap", new Factory(){
+			@Override
+			public TrapTile create(){
+				return new GrassTrap();
+			}
+		});
+	}
+
+	private TrapRegistry(){
+	}
+
+	/**
+	 * Registers the factory for traps with the given type property, replacing any already
+	 * registered
+	 */
+	public static void register(String type, Factory factory){
+		factories.put(type, factory);
+	}
+
+	/**
+	 * The factory for traps with the given type property
+	 * @throws IllegalArgumentException if no trap of that type is registered
+	 */
+	public static Factory factory(String type){
+		Factory factory = type == null ? null : factories.get(type);
+		if(factory == null){
+			throw new IllegalArgumentException("Unknown trap type: " + type);
+		}
+		return factory;
+	}
+}
@@ -7,7 +7,11 @@ public abstract class TrapTile extends MapTile{
 private static final String layerName = "Trap";
 
 	public TrapTile() {
-		super(layerName);
+		super(layerName, TYPE_TRAP);
+	}
+	
+	protected TrapTile(byte type) {
+		super(layerName, type);
 	}
 	public abstract void applyTo(Car car, float delta);
 }
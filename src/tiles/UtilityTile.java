@@ -12,7 +12,7 @@ public class UtilityTile extends MapTile{
 	private final Type type;
 	
 	public UtilityTile(String layerName, Type type) {
-		super(layerName);
+		super(layerName, type == Type.EXIT ? TYPE_EXIT : TYPE_START);
 		this.type = type;
 	}
 	
@@ -1,7 +1,5 @@
 package utilities;
 
-import java.util.Objects;
-
 public class Coordinate {
 	public int x;
 	public int y;
@@ -32,6 +30,30 @@ public class Coordinate {
 		this.y = y;
 	}
 	
+	/**
+	 * The coordinate packed into a long, for keys of primitive maps and sets and for arrays
+	 * of coordinates. Packed coordinates are equal exactly when the coordinates are.
+	 */
+	public static long pack(int x, int y){
+		return ((long) x << 32) | (y & 0xFFFFFFFFL);
+	}
+	
+	public long pack(){
+		return pack(x, y);
+	}
+	
+	public static int unpackX(long packed){
+		return (int) (packed >> 32);
+	}
+	
+	public static int unpackY(long packed){
+		return (int) packed;
+	}
+	
+	public static Coordinate unpack(long packed){
+		return new Coordinate(unpackX(packed), unpackY(packed));
+	}
+	
 	public String toString(){
 		return x+","+y;
 	}
@@ -54,6 +76,7 @@ public class Coordinate {
 	}
 	
 	public int hashCode(){
-		return Objects.hash(x,y);
+		// The same hash as Objects.hash(x,y), so hashed collections keep their order, without boxing
+		return 31 * (31 + x) + y;
 	}
 }
@@ -0,0 +1,71 @@
+package utilities;
+
+/**
+ * A first-in first-out queue of tile coordinates, kept packed in a ring so queueing and
+ * removing allocate nothing once it has grown to fit.
+ */
+public class TileRingBuffer {
+	
+	private long[] tiles;
+	private int head = 0;
+	private int size = 0;
+	
+	public TileRingBuffer(int capacity){
+		tiles = new long[Math.max(capacity, 1)];
+	}
+	
+	public void add(int x, int y){
+		if(size == tiles.length){
+			grow();
+		}
+		tiles[(head + size) % tiles.length] = Coordinate.pack(x, y);
+		size++;
+	}
+	
+	public boolean isEmpty(){
+		return size == 0;
+	}
+	
+	public int size(){
+		return size;
+	}
+	
+	/**
+	 * The x coordinate of the oldest tile in the queue
+	 */
+	public int headX(){
+		return Coordinate.unpackX(tiles[head]);
+	}
+	
+	/**
+	 * The y coordinate of the oldest tile in the queue
+	 */
+	public int headY(){
+		return Coordinate.unpackY(tiles[head]);
+	}
+	
+	/**
+	 * Removes the oldest tile from the queue
+	 */
+	public void removeHead(){
+		if(size == 0){
+			throw new IllegalStateException("Queue is empty");
+		}
+		head = (head + 1) % tiles.length;
+		size--;
+	}
+	
+	public void clear(){
+		head = 0;
+		size = 0;
+	}
+	
+	private void grow(){
+		long[] newTiles = new long[tiles.length * 2];
+		for(int i = 0; i < size; i++){
+			newTiles[i] = tiles[(head + i) % tiles.length];
+		}
+		tiles = newTiles;
+		head = 0;
+	}
+}
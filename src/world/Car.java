@@ -1,25 +1,17 @@
 package world;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.g2d.Sprite;
-import com.badlogic.gdx.graphics.g2d.SpriteBatch;
-import com.badlogic.gdx.maps.tiled.TiledMapTileLayer;
-import com.badlogic.gdx.maps.tiled.TiledMapTileLayer.Cell;
 import com.badlogic.gdx.math.Vector2;
-import com.swen30006.driving.Simulation;
 
 import exceptions.NoStartLocationException;
-import tiles.GrassTrap;
 import tiles.MapTile;
-import tiles.MudTrap;
 import tiles.TrapTile;
-import tiles.UtilityTile;
 import utilities.Coordinate;
 import utilities.PeekTuple;
 import world.WorldSpatial.Direction;
@@ -64,29 +56,54 @@ public class Car extends Sprite{
 	
 	
 	
+	// How the car's run has ended, if it has
+	public static enum Status { DRIVING, ESCAPED, DIED, STUCK };
+	private Status status = Status.DRIVING;
+	private boolean debugMode = false;
+	private RunRecorder recorder;
+	
+	// Inputs of the controller's last decision, repeated on the steps until its next one.
+	// Grows if a decision makes more inputs than it holds.
+	private byte[] heldInputs = new byte[16];
+	private int heldInputCount = 0;
+	private boolean holdingInputs = false;
+	
 	private static enum State { FORWARD, REVERSE };
-	private static State carDirection = State.FORWARD;
+	private State carDirection = State.FORWARD;
 	
 	
-	private static int CAR_WIDTH;
-	private static int CAR_HEIGHT;
+	private final World world;
+	private final int carWidth;
+	private final int carHeight;
 	
 	private int health;
 	private static final int INITIAL_HEALTH = 100;
 	
-	ArrayList<Integer> startLocation;
+	private final SensorWindow sensorWindow;
+	// Scratch state for the physics step, so stepping allocates nothing
+	private final RotationTrig trig = new RotationTrig();
+	private float accelerationX;
+	private float accelerationY;
+	
+	// The tile under the car, looked up once per position
+	private MapTile currentTile;
+	private float currentTileX;
+	private float currentTileY;
 	
-	public Car(Sprite sprite){
+	private final TrajectoryPredictor predictor;
+	private final TrajectoryPredictor.Prediction peekPrediction = new TrajectoryPredictor.Prediction();
+	private final PeekCache peekCache;
+	
+	public Car(World world, Sprite sprite, Coordinate startLocation){
 		super(sprite);
+		this.world = world;
 		
 		health = INITIAL_HEALTH;
 		velocity = new Vector2();
-
-		startLocation = getStartPosition();
 		
-		if(startLocation.size() > 0){
-			setX(startLocation.get(0));
-			setY(startLocation.get(1));
+		if(startLocation != null){
+			setX(startLocation.x);
+			setY(startLocation.y);
 		}
 		else{
 			try {
@@ -96,8 +113,11 @@ public class Car extends Sprite{
 			}
 		}
 		
-		CAR_WIDTH = (int) sprite.getWidth();
-		CAR_HEIGHT = (int) sprite.getHeight();
+		sensorWindow = new SensorWindow(world, VIEW_SQUARE);
+		predictor = new TrajectoryPredictor(this, world);
+		peekCache = new PeekCache(this, world, predictor);
+		carWidth = (int) sprite.getWidth();
+		carHeight = (int) sprite.getHeight();
 		
 		this.currentOrientation = WorldSpatial.Direction.EAST;
 		
@@ -105,24 +125,23 @@ public class Car extends Sprite{
 
 
 	public void update(float delta) {
-		if(Simulation.DEBUG_MODE){
+		// Nothing moves once the run is over
+		if(status != Status.DRIVING){
+			return;
+		}
+		if(debugMode){
 			printDebug();
 		}
 		checkHealth();
 		
 		// Get the current tile
-		MapTile currentTile = World.lookUp(getX(), getY());
-		if(currentTile.getName().equals("Utility")){
-			
-			if(((UtilityTile) currentTile).isExit()){
-				
-				Simulation.winGame();
-			}
+		MapTile currentTile = currentTile();
+		float speed = this.velocity.len();
+		if(currentTile.getType() == MapTile.TYPE_EXIT){
+			endRun(Status.ESCAPED);
 		}
-		if((this.velocity.len() < EPSILON) && (World.lookUp(getX(), getY()) instanceof MudTrap)){
-			System.out.println("STUCK IN MUD. GAME OVER. ESCAPE FAILED!!");
-			System.out.println("Time elapsed: " + ((System.currentTimeMillis() - Simulation.startTime) / 1000+" seconds!"));
-			Gdx.app.exit();
+		if((speed < EPSILON) && (currentTile.getType() == MapTile.TYPE_MUD)){
+			endRun(Status.STUCK);
 		}
 		// First calculate the force created by the engine, that is either accelerating or reversing
 		float drivingForce = 0;
@@ -133,21 +152,21 @@ public class Car extends Sprite{
 		// Calculate the braking force, if not braking apply a small amount of friction so we slow down over
 		// time, given this is negligible compared to braking we do one or, not both
 		float frictionForce = 0;
-		if(handBrake && (this.velocity.len() > EPSILON)){
+		if(handBrake && (speed > EPSILON)){
 			frictionForce = BRAKING_FORCE;
-		} else if (this.velocity.len() > 0){
+		} else if (speed > 0){
 			frictionForce = FRICTION_FORCE;
 		}
 
 		// Check if you are standing on a trap!
 		checkTrap(currentTile,delta);
-		applySteering();
+		applySteering(currentTile);
 		
 		// Calculate acceleration
-		Vector2 netAcceleration = calculateAcceleration(drivingForce, frictionForce);
+		calculateAcceleration(drivingForce, frictionForce);
 		
 		// Apply the acceleration to velocity
-		applyAcceleration(netAcceleration, delta);
+		applyAcceleration(delta);
 		
 		setPosition(velocity, delta);
 
@@ -158,9 +177,14 @@ public class Car extends Sprite{
 	
 	private void checkHealth() {
 		if(health <= 0){
-			System.out.println("NO HEALTH. GAME OVER. ESCAPE FAILED!!");
-			System.out.println("Time elapsed: " + ((System.currentTimeMillis() - Simulation.startTime) / 1000+" seconds!"));
-			Gdx.app.exit();
+			endRun(Status.DIED);
+		}
+	}
+	
+	private void endRun(Status outcome){
+		// The first way the run ended is the one that counts
+		if(status == Status.DRIVING){
+			status = outcome;
 		}
 	}
     
@@ -169,16 +193,24 @@ public class Car extends Sprite{
 	}
 	
 	public void applyForwardAcceleration(){
+		if(recorder != null){
+			recorder.record(RunRecorder.FORWARD);
+		}
+		hold(RunRecorder.FORWARD);
 		// Can't accelerate if you are on mud!
-		if(!(World.lookUp(getX(), getY()) instanceof MudTrap)){
+		if(currentTile().getType() != MapTile.TYPE_MUD){
 			accelerating = true;
 		}
 		
 	}
 	
 	public void applyReverseAcceleration(){
+		if(recorder != null){
+			recorder.record(RunRecorder.REVERSE);
+		}
+		hold(RunRecorder.REVERSE);
 		// Can't reverse if you are on mud!
-		if(!(World.lookUp(getX(), getY()) instanceof MudTrap)){
+		if(currentTile().getType() != MapTile.TYPE_MUD){
 			reversing = true;
 			wasReversing = true;
 		}
@@ -186,13 +218,20 @@ public class Car extends Sprite{
 	}
 	
 	public void brake(){
+		if(recorder != null){
+			recorder.record(RunRecorder.BRAKE);
+		}
+		hold(RunRecorder.BRAKE);
 		handBrake = true;
 	}
 	
 	
 	/** Snap to an orientation if you get close to it! **/
 	public void turnLeft(float delta){
-		
+		if(recorder != null){
+			recorder.recordTurn(RunRecorder.TURN_LEFT, RunRecorder.TURN_LEFT_TICK, delta);
+		}
+		hold(RunRecorder.TURN_LEFT);
 		angle += ROTATING_FACTOR * delta;
 		if(reversing){
 			angle *= -1;
@@ -280,6 +319,10 @@ public class Car extends Sprite{
 
 
 	public void turnRight(float delta) {
+		if(recorder != null){
+			recorder.recordTurn(RunRecorder.TURN_RIGHT, RunRecorder.TURN_RIGHT_TICK, delta);
+		}
+		hold(RunRecorder.TURN_RIGHT);
 		angle -= ROTATING_FACTOR * delta;
 
 		if(reversing){
@@ -289,10 +332,21 @@ public class Car extends Sprite{
 
 	}
 	
-	private void applySteering(){
+	private MapTile currentTile(){
+		float x = getX();
+		float y = getY();
+		if(currentTile == null || x != currentTileX || y != currentTileY){
+			currentTile = world.lookUp(x, y);
+			currentTileX = x;
+			currentTileY = y;
+		}
+		return currentTile;
+	}
+	
+	private void applySteering(MapTile currentTile){
 		
 
-		if(velocity.len() > TURN_EPSILON && !handBrake && !(World.lookUp(getX(), getY()) instanceof GrassTrap)) { 
+		if(velocity.len() > TURN_EPSILON && !handBrake && currentTile.getType() != MapTile.TYPE_GRASS) { 
 
 			rotation += angle;
 
@@ -307,55 +361,47 @@ public class Car extends Sprite{
 		}
 	}
 	
-	private Vector2 calculateAcceleration(float drivingForce, float frictionForce){
-
-		Vector2 acceleration = new Vector2(1,0);
-		acceleration.rotate(rotation);
-		acceleration.scl(drivingForce);
-		
-
-		Vector2 friction = new Vector2(1,0);
-		if(acceleration.len() > 0){
-
-			friction.rotate(acceleration.angle() - MAX_DEGREES/2);
-		} else {
-
-			friction.rotate((rotation - MAX_DEGREES/2) % MAX_DEGREES);
-		}
-		friction.scl(frictionForce);
-
-
-		
-		Vector2 netAcceleration = acceleration.add(friction);
-		return netAcceleration;
+	// The same sums as rotating Vector2s, with the trig of the rotation cached
+	private void calculateAcceleration(float drivingForce, float frictionForce){
+		trig.set(rotation);
+		float frictionCos = trig.coastingFrictionCos;
+		float frictionSin = trig.coastingFrictionSin;
+		if(drivingForce > 0){
+			frictionCos = trig.drivingFrictionCos;
+			frictionSin = trig.drivingFrictionSin;
+		}
+		accelerationX = trig.cos * drivingForce + frictionCos * frictionForce;
+		accelerationY = trig.sin * drivingForce + frictionSin * frictionForce;
 	}
 	
-	private void applyAcceleration(Vector2 acceleration, float delta){
+	private void applyAcceleration(float delta){
 		
-
-		this.velocity.setAngle(rotation);
+		// Turn the velocity to the rotation, trig is still set to it
+		float speed = this.velocity.len();
+		this.velocity.x = speed * trig.cos;
+		this.velocity.y = speed * trig.sin;
 
 		if((carDirection.equals(State.REVERSE) && accelerating) || (carDirection.equals(State.FORWARD) && reversing)){
 
-			this.velocity.x -= acceleration.x * delta;
-			this.velocity.y -= acceleration.y * delta;
+			this.velocity.x -= accelerationX * delta;
+			this.velocity.y -= accelerationY * delta;
 		}
 		else{
-			this.velocity.x += acceleration.x * delta;
-			this.velocity.y += acceleration.y * delta;
+			this.velocity.x += accelerationX * delta;
+			this.velocity.y += accelerationY * delta;
 		}
 
 	
-
-		if(this.velocity.len() > MAX_SPEED && !reversing) {
-			float scalar = this.velocity.len() / MAX_SPEED;
+		speed = this.velocity.len();
+		if(speed > MAX_SPEED && !reversing) {
+			float scalar = speed / MAX_SPEED;
 			this.velocity.scl(1/scalar);
 		} 
-		else if(this.velocity.len() > MAX_REVERSE_SPEED && reversing){
-			float scalar = this.velocity.len() / MAX_REVERSE_SPEED;
+		else if(speed > MAX_REVERSE_SPEED && reversing){
+			float scalar = speed / MAX_REVERSE_SPEED;
 			this.velocity.scl(1/scalar);
 		}
-		else if (this.velocity.len() < EPSILON){
+		else if (speed < EPSILON){
 			this.velocity.x = 0;
 			this.velocity.y = 0;
 			if(carDirection.equals(State.FORWARD)){
@@ -370,13 +416,15 @@ public class Car extends Sprite{
 		}
 		if(carDirection.equals(State.REVERSE)){
 			
-			velocity.rotate(180);
+			float rotatedX = velocity.x * RotationTrig.COS_180 - velocity.y * RotationTrig.SIN_180;
+			velocity.y = velocity.x * RotationTrig.SIN_180 + velocity.y * RotationTrig.COS_180;
+			velocity.x = rotatedX;
 		}
 	}
 	
 	private void setPosition(Vector2 velocity, float delta){
-		double xOffset = ((CAR_WIDTH / 2)*1.0/World.MAP_PIXEL_SIZE);
-		double yOffset = ((CAR_HEIGHT/2)*1.0/World.MAP_PIXEL_SIZE);
+		double xOffset = ((carWidth / 2)*1.0/World.MAP_PIXEL_SIZE);
+		double yOffset = ((carHeight/2)*1.0/World.MAP_PIXEL_SIZE);
 
 		double futureX = getX() + velocity.x * delta;
 		double futureY = getY() + velocity.y * delta;
@@ -393,17 +441,17 @@ public class Car extends Sprite{
 		else{
 			futureY -= xOffset;
 		}
-		MapTile tile = World.lookUp(futureX, futureY);
-
-		if(!tile.getName().equals("Empty") && !tile.getName().equals("Wall")){
-
-			setX(getX() + velocity.x * delta);
-			setY(getY() + velocity.y * delta);
-		}
-		else{
+		switch(world.lookUp(futureX, futureY).getType()){
+		case MapTile.TYPE_EMPTY:
+		case MapTile.TYPE_WALL:
 			velocity.x = 0;
 			velocity.y = 0;
 			reduceHealth(5 * delta);
+			break;
+		default:
+			setX(getX() + velocity.x * delta);
+			setY(getY() + velocity.y * delta);
+			break;
 		}
 		
 	}
@@ -415,39 +463,19 @@ public class Car extends Sprite{
 		handBrake = false;
 	}
 
-	public void draw(SpriteBatch spriteBatch){
-		update(Gdx.graphics.getDeltaTime());
-	}
-	
-	private ArrayList<Integer> getStartPosition(){
-		
-		ArrayList<Integer> startLocation = new ArrayList<Integer>();
-
-		TiledMapTileLayer utilityLayer = (TiledMapTileLayer) World.getMap().getLayers().get("Utility");
-		
-
-		for(int x = 0; x < utilityLayer.getWidth(); x++){
-			for(int y = 0; y < utilityLayer.getHeight(); y++){
-				Cell utilityCell = utilityLayer.getCell(x, y);
-				if(utilityCell != null && utilityCell.getTile().getProperties().get("startLocation") != null){
-					if((Boolean) utilityCell.getTile().getProperties().get("startLocation")){
-						startLocation.add(x);
-						startLocation.add(y);
-						break;
-					}
-				}
-
-			}
-		}
-		return startLocation;
-	}
-	
 
 	public void checkTrap(MapTile currentTile, float delta){
 
-		if(currentTile.getName().equals("Trap")){
+		switch(currentTile.getType()){
+		case MapTile.TYPE_TRAP:
+		case MapTile.TYPE_LAVA:
+		case MapTile.TYPE_MUD:
+		case MapTile.TYPE_GRASS:
 			TrapTile trapTile = (TrapTile) currentTile;
 			trapTile.applyTo(this, delta);
+			break;
+		default:
+			break;
 		}
 	}
 	
@@ -478,136 +506,43 @@ public class Car extends Sprite{
 	// where will I be? Note: This method is a composition of other methods used above, would be best
 	// if physics calculations were abstracted into their own class.
 	public PeekTuple peek(Vector2 velocity, float degree, WorldSpatial.RelativeDirection turnDirection, float delta){
-		
-		
-		float currentAngle = angle;
-		float currentRotation = rotation;
-		boolean currentlyAccelerating = this.accelerating;
-		boolean currentlyReversing = this.reversing;
-		float currentX = getX();
-		float currentY = getY();
-		Vector2 currentVelocity = new Vector2(velocity.x,velocity.y);
-		State currentCarDirection = carDirection;
-		float timeDifference = Math.abs(rotation-degree) / (ROTATING_FACTOR * delta);
-		
-		boolean reachable = true;
-		
-		// Convert degree to the right orientation based on turning direction
-		// Going right are negative values while going left is positive.
-		if(turnDirection.equals(WorldSpatial.RelativeDirection.RIGHT) && degree > 0){
-			degree = 0 - degree;
-		}
-		
-		if(turnDirection.equals(WorldSpatial.RelativeDirection.LEFT) && degree < 0){
-			degree = 360 - degree;
-		}
-		
-		for(int i = 0; i < (int) Math.round(timeDifference); i++){
-			if((currentRotation < degree && turnDirection.equals(WorldSpatial.RelativeDirection.LEFT) || (currentRotation > degree && turnDirection.equals(WorldSpatial.RelativeDirection.RIGHT)))){
-				// Calculate Right turns
-				if(turnDirection.equals(WorldSpatial.RelativeDirection.RIGHT)){
-					currentAngle -= ROTATING_FACTOR * delta;
-					if(currentlyReversing){
-						currentAngle *= -1;
-					}
-				}
-				// Calculate Left turns
-				else{
-					currentAngle += ROTATING_FACTOR * delta;
-					if(currentlyReversing){
-						currentAngle *= -1;
-					}
-				}
-			}
-
-				
-			
-
-			
-			if(currentVelocity.len() > EPSILON) { 
-				// Update our rotation
-				currentRotation += currentAngle;
-				// Slowly return our rotation to 0 if not turning
-				if(currentAngle > TURN_EPSILON || currentAngle < TURN_EPSILON ){
-					// Slowly update turnings
-					int sign = currentAngle > 0 ? 1 : -1;
-					float magnitude = Math.abs(currentAngle) - Math.abs(currentAngle)*STEERING_ADJUST_FACTOR;
-					currentAngle = magnitude * sign;
-				} else {
-					currentAngle = 0;
-				}
-			}
-			
-			// Create an acceleration vector by rotating a unit vector
-			// and scaling with the appropriate force
-			Vector2 acceleration = new Vector2(1,0);
-			acceleration.rotate(currentRotation);
-			acceleration.scl(ACCELERATION);
-			
-			// Create a friction vector
-			Vector2 friction = new Vector2(1,0);
-			if(acceleration.len() > 0){
-				// Rotate to face the other direction
-				friction.rotate(acceleration.angle() - MAX_DEGREES/2);
-			} else {
-				// Apply friction in the opposite direction that we are facing
-				friction.rotate((currentRotation - MAX_DEGREES/2) % MAX_DEGREES);
-			}
-			friction.scl(FRICTION_FORCE);
-
-			// Calculate net change
-			
-			Vector2 netAcceleration = acceleration.add(friction);
-			
-
-			
-			// Calculating the movement
-			// Rotate our velocity (highly simplified effect of rotating the car) and update with acceleration
-			currentVelocity.setAngle(currentRotation);
-			if((currentCarDirection.equals(State.REVERSE) && currentlyAccelerating) || (currentCarDirection.equals(State.FORWARD) && currentlyReversing)){
-				currentVelocity.x -= netAcceleration.x * delta;
-				currentVelocity.y -= netAcceleration.y * delta;
-			}
-			else{
-				currentVelocity.x += netAcceleration.x * delta;
-				currentVelocity.y += netAcceleration.y * delta;
-			}
-			
-			// If we get greater than max velocity then limit us to that, if we're smaller than epsilon stop
-			if(currentVelocity.len() > MAX_SPEED ) {
-				float scalar = currentVelocity.len() / MAX_SPEED;
-				currentVelocity.scl(1/scalar);
-			} 
-			else if (currentVelocity.len() < EPSILON){
-				currentVelocity.x = 0;
-				currentVelocity.y = 0;
-				if(currentCarDirection.equals(State.FORWARD)){
-					currentCarDirection = State.REVERSE;
-				}
-				else{
-					currentCarDirection = State.FORWARD;
-				}
-			}
-			
-			if(currentCarDirection.equals(State.REVERSE)){
-				
-				currentVelocity.rotate(180);
-			}
-			
-			currentX += currentVelocity.x * delta;
-			currentY += currentVelocity.y * delta;
-			
-			// Check if you will hit a wall
-			if(World.lookUp(currentX, currentY).getName().equals("Wall")){
-				reachable = false;
-			}
-			currentAngle = 0;
-		}
-		
-		
-
-		return new PeekTuple(new Coordinate(Math.round(currentX), Math.round(currentY)),reachable);
-		
+		predictor.predict(velocity.x, velocity.y, degree, turnDirection, delta, peekPrediction, null);
+		return new PeekTuple(new Coordinate(peekPrediction.getEndX(), peekPrediction.getEndY()), peekPrediction.isReachable());
+	}
+	
+	/**
+	 * Predicts manoeuvres like peek without allocating, for controllers that try many per tick
+	 */
+	public TrajectoryPredictor getTrajectoryPredictor(){
+		return predictor;
+	}
+	
+	/**
+	 * Peek's predictions, remembered for when the car is next in the same state near the same walls
+	 */
+	public PeekCache getPeekCache(){
+		return peekCache;
+	}
+	
+	// The state of a turn in progress, for TrajectoryPredictor
+	float getTurnAngle(){
+		return angle;
+	}
+	
+	float getRawRotation(){
+		return rotation;
+	}
+	
+	boolean isAccelerating(){
+		return accelerating;
+	}
+	
+	boolean isReversing(){
+		return reversing;
+	}
+	
+	boolean isMovingForward(){
+		return carDirection == State.FORWARD;
 	}
 	
 	// Debug mode for the car
@@ -616,7 +551,7 @@ public class Car extends Sprite{
 				"\nCurrent Speed: "+getVelocity()+"\n"+
 				"Current Angle: "+getAngle()+"\n"+
 				"Current Position: "+getPosition()+"\n"+
-				"Current Tile: "+World.lookUp(getX(), getY()).getName()+"\n\n"
+				"Current Tile: "+world.lookUp(getX(), getY()).getName()+"\n\n"
 				);
 	}
 	
@@ -631,7 +566,7 @@ public class Car extends Sprite{
 		HashMap<Coordinate,MapTile> subMap = new HashMap<Coordinate,MapTile>();
 		for(int x = currentX - VIEW_SQUARE; x <= currentX+VIEW_SQUARE; x++){
 			for(int y = currentY - VIEW_SQUARE; y <= currentY+VIEW_SQUARE; y++){
-				MapTile tile = World.lookUp(x,y);
+				MapTile tile = world.lookUp(x,y);
 				subMap.put(new Coordinate(x,y),tile);
 				
 			}
@@ -640,13 +575,87 @@ public class Car extends Sprite{
 		return subMap;
 	}
 	
+	public SensorWindow getSensorWindow(){
+		sensorWindow.recentre(getTileX(), getTileY());
+		return sensorWindow;
+	}
+	
 	public String getPosition(){
 		return Math.round(this.getX())+","+Math.round(this.getY());
 	}
+	
+	public int getTileX(){
+		return Math.round(this.getX());
+	}
+	
+	public int getTileY(){
+		return Math.round(this.getY());
+	}
 	public int getHealth(){
 		return this.health;
 	}
 	
+	public Status getStatus(){
+		return this.status;
+	}
+	
+	void holdInputs(boolean holding){
+		if(holding){
+			heldInputCount = 0;
+		}
+		holdingInputs = holding;
+	}
+	
+	private void hold(byte input){
+		if(holdingInputs){
+			if(heldInputCount == heldInputs.length){
+				heldInputs = Arrays.copyOf(heldInputs, heldInputs.length * 2);
+			}
+			heldInputs[heldInputCount++] = input;
+		}
+	}
+	
+	// Gives the inputs of the last decision again, turning by this step's delta
+	void repeatHeldInputs(float delta){
+		for(int i = 0; i < heldInputCount; i++){
+			switch(heldInputs[i]){
+			case RunRecorder.FORWARD:
+				applyForwardAcceleration();
+				break;
+			case RunRecorder.REVERSE:
+				applyReverseAcceleration();
+				break;
+			case RunRecorder.BRAKE:
+				brake();
+				break;
+			case RunRecorder.TURN_LEFT:
+				turnLeft(delta);
+				break;
+			case RunRecorder.TURN_RIGHT:
+				turnRight(delta);
+				break;
+			default:
+				break;
+			}
+		}
+	}
+	
+	int getCarWidth(){
+		return carWidth;
+	}
+	
+	int getCarHeight(){
+		return carHeight;
+	}
+	
+	void setRecorder(RunRecorder recorder){
+		this.recorder = recorder;
+	}
+	
+	public void setDebugMode(boolean debugMode){
+		this.debugMode = debugMode;
+	}
+	
 	public WorldSpatial.Direction getOrientation(){
 		return this.currentOrientation;
 	}
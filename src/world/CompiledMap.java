@@ -0,0 +1,216 @@
+package world;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import tiles.MapTile;
+import utilities.Coordinate;
+
+/**
+ * A map compiled from a .tmx into a compact binary tile grid, so it can be loaded without
+ * parsing XML. Compile maps once with main, then load them with read like a TmxMapReader map.
+ *
+ * The file is a header (magic, version, width, height, start location and exit list), then a
+ * palette of the distinct tiles on the map, each a type code plus the type property for traps, then
+ * one palette index per cell in row-major order from the bottom row up.
+ */
+public class CompiledMap {
+
+	public static final String EXTENSION = ".cmap";
+
+	static final int MAGIC = 0x53574d50; // "SWMP"
+	static final byte VERSION = 1;
+
+	// Palette indices, and the palette's size, are stored in a byte
+	private static final int MAX_PALETTE_SIZE = 255;
+
+	private CompiledMap(){
+	}
+
+	public static World read(String path) throws IOException {
+		return new World(readGrid(new File(path)));
+	}
+
+	/**
+	 * Reads a map for a car of the given size in pixels, e.g. to match a run recorded
+	 * with the car's texture
+	 */
+	public static World read(String path, int carWidth, int carHeight) throws IOException {
+		return new World(readGrid(new File(path)), carWidth, carHeight);
+	}
+
+	static TileGridBuilder readGrid(File file) throws IOException {
+		MappedByteBuffer buffer;
+		FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+		try {
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		} finally {
+			// The mapping stays valid after the channel is closed
+			channel.close();
+		}
+
+		try {
+			if(buffer.getInt() != MAGIC){
+				throw new IOException(file + " is not a compiled map");
+			}
+			byte version = buffer.get();
+			if(version != VERSION){
+				throw new IOException(file + " is compiled map version " + version + ", expected " + VERSION);
+			}
+
+			int width = buffer.getInt();
+			int height = buffer.getInt();
+			if(width < 0 || height < 0){
+				throw new IOException("Invalid map size in " + file + ": " + width + "x" + height);
+			}
+			// Every cell takes a byte of what's left, so a bad header is caught before the grid is made
+			long cells = (long) width * height;
+			if(cells > Integer.MAX_VALUE || cells > buffer.remaining()){
+				throw new IOException("Map size " + width + "x" + height + " in " + file + " doesn't fit the file");
+			}
+			TileGridBuilder grid = new TileGridBuilder(width, height);
+			int startX = buffer.getInt();
+			int startY = buffer.getInt();
+			if(startX >= 0){
+				grid.setStart(startX, startY);
+			}
+
+			int exitCount = buffer.getInt();
+			if(exitCount < 0 || exitCount > buffer.remaining() / 8){
+				throw new IOException("Invalid exit count in " + file + ": " + exitCount);
+			}
+			ArrayList<Coordinate> exits = new ArrayList<Coordinate>(exitCount);
+			for(int i = 0; i < exitCount; i++){
+				exits.add(new Coordinate(buffer.getInt(), buffer.getInt()));
+			}
+			grid.setExits(exits);
+
+			MapTile[] palette = new MapTile[buffer.get() & 0xff];
+			for(int i = 0; i < palette.length; i++){
+				byte type = buffer.get();
+				try {
+					palette[i] = grid.tile(type, isTrap(type) ? readString(buffer) : null);
+				} catch (IllegalArgumentException e) {
+					throw new IOException(e.getMessage() + " in " + file, e);
+				}
+			}
+
+			MapTile[] tiles = grid.getTiles();
+			for(int i = 0; i < tiles.length; i++){
+				int index = buffer.get() & 0xff;
+				if(index >= palette.length){
+					throw new IOException("Invalid tile at cell " + i + " of " + file);
+				}
+				tiles[i] = palette[index];
+			}
+			return grid;
+		} catch (BufferUnderflowException e) {
+			throw new IOException(file + " is truncated", e);
+		}
+	}
+
+	/**
+	 * Writes a grid, as read from any map source, in the compiled format
+	 */
+	static void write(TileGridBuilder grid, File file) throws IOException {
+		MapTile[] tiles = grid.getTiles();
+
+		// Tiles are shared flyweights, so the distinct instances are the palette
+		ArrayList<MapTile> palette = new ArrayList<MapTile>();
+		byte[] cells = new byte[tiles.length];
+		for(int i = 0; i < tiles.length; i++){
+			int index = palette.indexOf(tiles[i]);
+			if(index < 0){
+				index = palette.size();
+				if(index == MAX_PALETTE_SIZE){
+					throw new IOException("Too many kinds of tile to compile, the limit is " + MAX_PALETTE_SIZE);
+				}
+				palette.add(tiles[i]);
+			}
+			cells[i] = (byte) index;
+		}
+
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+		try {
+			out.writeInt(MAGIC);
+			out.writeByte(VERSION);
+			out.writeInt(grid.getWidth());
+			out.writeInt(grid.getHeight());
+			Coordinate start = grid.getStart();
+			out.writeInt(start == null ? -1 : start.x);
+			out.writeInt(start == null ? -1 : start.y);
+
+			List<Coordinate> exits = grid.getExits();
+			out.writeInt(exits.size());
+			for(Coordinate exit : exits){
+				out.writeInt(exit.x);
+				out.writeInt(exit.y);
+			}
+
+			out.writeByte(palette.size());
+			for(MapTile tile : palette){
+				byte type = tile == null ? MapTile.TYPE_EMPTY : tile.getType();
+				out.writeByte(type);
+				if(isTrap(type)){
+					writeString(out, grid.trapTypeOf(tile));
+				}
+			}
+			out.write(cells);
+		} finally {
+			out.close();
+		}
+	}
+
+	private static boolean isTrap(byte type){
+		return type >= MapTile.TYPE_TRAP;
+	}
+
+	private static String readString(MappedByteBuffer buffer){
+		byte[] bytes = new byte[buffer.getShort() & 0xffff];
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private static void writeString(DataOutputStream out, String string) throws IOException {
+		byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+		out.writeShort(bytes.length);
+		out.write(bytes);
+	}
+
+	/**
+	 * Usage: CompiledMap maps...
+	 * Compiles each .tmx (or each .tmx in a directory) to a .cmap next to it.
+	 */
+	public static void main(String[] args) throws IOException {
+		if(args.length == 0){
+			System.err.println("Usage: CompiledMap <map.tmx or directory>...");
+			System.exit(2);
+		}
+		for(String arg : args){
+			File file = new File(arg);
+			File[] maps = file.isDirectory() ? file.listFiles() : new File[] {file};
+			if(maps == null){
+				continue;
+			}
+			for(File map : maps){
+				String name = map.getName();
+				if(!name.endsWith(".tmx")){
+					continue;
+				}
+				File out = new File(map.getParentFile(), name.substring(0, name.length() - ".tmx".length()) + EXTENSION);
+				write(TmxMapReader.readGrid(map), out);
+				System.out.println(map + " -> " + out);
+			}
+		}
+	}
+}
@@ -0,0 +1,421 @@
+package world;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Random;
+
+import tiles.MapTile;
+
+/**
+ * Generates seeded mazes of any size, as a World or as a .tmx for TmxMapReader, for stress
+ * and scaling runs. The same size, seed and settings always give the same maze.
+ *
+ * The maze is a grid of square cells, corridorWidth tiles across, with one tile of wall
+ * between them. It starts as a perfect maze, where every corridor off the solution ends in a
+ * dead end, then dead ends are opened into a neighbouring cell until deadEndDensity of them
+ * are left. The start is in the bottom left cell, and exits replace wall tiles on the
+ * map's edge next to a corridor.
+ */
+public class MazeGenerator {
+
+	// Tileset gids of the generated .tmx, in the order TILESET declares them
+	private static final int GID_ROAD = 1;
+	private static final int GID_WALL = 2;
+	private static final int GID_START = 3;
+	private static final int GID_EXIT = 4;
+	private static final int GID_LAVA = 5;
+	private static final int GID_MUD = 6;
+	private static final int GID_GRASS = 7;
+
+	// Properties only, so the .tmx is for headless runs, the GUI needs a tileset image
+	private static final String TILESET =
+			" <tileset firstgid=\"1\" name=\"maze\" tilewidth=\"32\" tileheight=\"32\" tilecount=\"7\">\n" +
+			"  <tile id=\"2\"><properties><property name=\"startLocation\" type=\"bool\" value=\"true\"/></properties></tile>\n" +
+			"  <tile id=\"3\"><properties><property name=\"exit\" value=\"true\"/></properties></tile>\n" +
+			"  <tile id=\"4\"><properties><property name=\"type\" value=\"LavaTrap\"/></properties></tile>\n" +
+			"  <tile id=\"5\"><properties><property name=\"type\" value=\"MudTrap\"/></properties></tile>\n" +
+			"  <tile id=\"6\"><properties><property name=\"type\" value=\"GrassTrap\"/></properties></tile>\n" +
+			" </tileset>\n";
+
+	private static final int[] CELL_DX = {0, 1, 0, -1};
+	private static final int[] CELL_DY = {1, 0, -1, 0};
+
+	private final int width;
+	private final int height;
+	private final long seed;
+
+	private int corridorWidth = 1;
+	private float deadEndDensity = 1;
+	private float trapDensity = 0;
+	private float lavaWeight = 1;
+	private float mudWeight = 1;
+	private float grassWeight = 1;
+	private int exitCount = 1;
+
+	public MazeGenerator(int width, int height, long seed){
+		if(width < 3 || height < 3){
+			throw new IllegalArgumentException("A maze needs at least 3x3 tiles: " + width + "x" + height);
+		}
+		this.width = width;
+		this.height = height;
+		this.seed = seed;
+	}
+
+	/**
+	 * Sets how many tiles across each corridor is
+	 */
+	public void setCorridorWidth(int corridorWidth){
+		if(corridorWidth < 1 || corridorWidth + 2 > Math.min(width, height)){
+			throw new IllegalArgumentException("Invalid corridor width: " + corridorWidth);
+		}
+		this.corridorWidth = corridorWidth;
+	}
+
+	/**
+	 * Sets the fraction of the perfect maze's dead ends that are left, 1 leaves them all and
+	 * 0 opens every one into a loop
+	 */
+	public void setDeadEndDensity(float deadEndDensity){
+		if(!(deadEndDensity >= 0 && deadEndDensity <= 1)){
+			throw new IllegalArgumentException("Dead end density must be between 0 and 1: " + deadEndDensity);
+		}
+		this.deadEndDensity = deadEndDensity;
+	}
+
+	/**
+	 * Sets the fraction of corridor tiles that are traps, and the relative weight of each kind
+	 */
+	public void setTraps(float trapDensity, float lavaWeight, float mudWeight, float grassWeight){
+		if(!(trapDensity >= 0 && trapDensity <= 1) || lavaWeight < 0 || mudWeight < 0 || grassWeight < 0
+				|| (trapDensity > 0 && lavaWeight + mudWeight + grassWeight <= 0)){
+			throw new IllegalArgumentException("Invalid traps: " + trapDensity + ", " + lavaWeight + ", " + mudWeight + ", " + grassWeight);
+		}
+		this.trapDensity = trapDensity;
+		this.lavaWeight = lavaWeight;
+		this.mudWeight = mudWeight;
+		this.grassWeight = grassWeight;
+	}
+
+	/**
+	 * Sets how many exits there are, there may be fewer if the edge runs out of places for them
+	 */
+	public void setExitCount(int exitCount){
+		if(exitCount < 1){
+			throw new IllegalArgumentException("A maze needs an exit: " + exitCount);
+		}
+		this.exitCount = exitCount;
+	}
+
+	/**
+	 * Generates the maze as a world with no controller, for a car of the default size
+	 */
+	public World generateWorld(){
+		return new World(generateGrid());
+	}
+
+	/**
+	 * Generates the maze as a .tmx that TmxMapReader can read
+	 */
+	public void writeTmx(File file) throws IOException {
+		write(generate(), new BufferedWriter(new FileWriter(file)));
+	}
+
+	TileGridBuilder generateGrid(){
+		byte[] types = generate();
+		TileGridBuilder grid = new TileGridBuilder(width, height);
+		MapTile[] tiles = grid.getTiles();
+		for(int i = 0; i < types.length; i++){
+			tiles[i] = grid.tile(types[i], trapType(types[i]));
+			if(types[i] == MapTile.TYPE_START){
+				grid.setStart(i % width, i / width);
+			}
+		}
+		return grid;
+	}
+
+	/**
+	 * The type code of every tile, row-major from the bottom row up
+	 */
+	private byte[] generate(){
+		Random random = new Random(seed);
+		byte[] types = new byte[width * height];
+		Arrays.fill(types, MapTile.TYPE_WALL);
+
+		// Cells fill the map inside its edge wall, any space left over is wall
+		int pitch = corridorWidth + 1;
+		int cellsX = (width - 1) / pitch;
+		int cellsY = (height - 1) / pitch;
+		int cellCount = cellsX * cellsY;
+
+		// Recursive backtracker over the cells, with an explicit stack so huge mazes don't overflow
+		boolean[] visited = new boolean[cellCount];
+		int[] stack = new int[cellCount];
+		int depth = 0;
+		int[] directions = new int[CELL_DX.length];
+		stack[depth++] = 0;
+		visited[0] = true;
+		carveCell(types, 0, cellsX);
+		while(depth > 0){
+			int cell = stack[depth - 1];
+			int cellX = cell % cellsX;
+			int cellY = cell / cellsX;
+			int options = 0;
+			for(int d = 0; d < CELL_DX.length; d++){
+				int nextX = cellX + CELL_DX[d];
+				int nextY = cellY + CELL_DY[d];
+				if(nextX >= 0 && nextY >= 0 && nextX < cellsX && nextY < cellsY && !visited[nextX + nextY * cellsX]){
+					directions[options++] = d;
+				}
+			}
+			if(options == 0){
+				depth--;
+				continue;
+			}
+			int d = directions[random.nextInt(options)];
+			int next = (cellX + CELL_DX[d]) + (cellY + CELL_DY[d]) * cellsX;
+			visited[next] = true;
+			carveCell(types, next, cellsX);
+			carveWall(types, cell, d, cellsX);
+			stack[depth++] = next;
+		}
+
+		openDeadEnds(types, random, cellsX, cellsY);
+		placeTraps(types, random);
+
+		// Bottom left tile of the bottom left cell, the car starts facing east along it
+		types[1 + width] = MapTile.TYPE_START;
+		placeExits(types, random);
+		return types;
+	}
+
+	private void carveCell(byte[] types, int cell, int cellsX){
+		int left = 1 + (cell % cellsX) * (corridorWidth + 1);
+		int bottom = 1 + (cell / cellsX) * (corridorWidth + 1);
+		for(int y = bottom; y < bottom + corridorWidth; y++){
+			for(int x = left; x < left + corridorWidth; x++){
+				types[x + y * width] = MapTile.TYPE_ROAD;
+			}
+		}
+	}
+
+	// Opens the wall between a cell and its neighbour in direction d
+	private void carveWall(byte[] types, int cell, int d, int cellsX){
+		int left = 1 + (cell % cellsX) * (corridorWidth + 1);
+		int bottom = 1 + (cell / cellsX) * (corridorWidth + 1);
+		for(int i = 0; i < corridorWidth; i++){
+			int x;
+			int y;
+			if(CELL_DX[d] != 0){
+				x = CELL_DX[d] > 0 ? left + corridorWidth : left - 1;
+				y = bottom + i;
+			}
+			else{
+				x = left + i;
+				y = CELL_DY[d] > 0 ? bottom + corridorWidth : bottom - 1;
+			}
+			types[x + y * width] = MapTile.TYPE_ROAD;
+		}
+	}
+
+	private void openDeadEnds(byte[] types, Random random, int cellsX, int cellsY){
+		int[] walls = new int[CELL_DX.length];
+		for(int cell = 0; cell < cellsX * cellsY; cell++){
+			int cellX = cell % cellsX;
+			int cellY = cell / cellsX;
+			int openings = 0;
+			int closed = 0;
+			for(int d = 0; d < CELL_DX.length; d++){
+				int nextX = cellX + CELL_DX[d];
+				int nextY = cellY + CELL_DY[d];
+				if(nextX < 0 || nextY < 0 || nextX >= cellsX || nextY >= cellsY){
+					continue;
+				}
+				if(isOpen(types, cell, d, cellsX)){
+					openings++;
+				}
+				else{
+					walls[closed++] = d;
+				}
+			}
+			// Always roll, so the same seed makes the same maze at every density
+			float roll = random.nextFloat();
+			int d = closed == 0 ? 0 : walls[random.nextInt(closed)];
+			if(openings == 1 && closed > 0 && roll >= deadEndDensity){
+				carveWall(types, cell, d, cellsX);
+			}
+		}
+	}
+
+	private boolean isOpen(byte[] types, int cell, int d, int cellsX){
+		int left = 1 + (cell % cellsX) * (corridorWidth + 1);
+		int bottom = 1 + (cell / cellsX) * (corridorWidth + 1);
+		int x = CELL_DX[d] > 0 ? left + corridorWidth : (CELL_DX[d] < 0 ? left - 1 : left);
+		int y = CELL_DY[d] > 0 ? bottom + corridorWidth : (CELL_DY[d] < 0 ? bottom - 1 : bottom);
+		return types[x + y * width] != MapTile.TYPE_WALL;
+	}
+
+	private void placeTraps(byte[] types, Random random){
+		if(trapDensity <= 0){
+			return;
+		}
+		float total = lavaWeight + mudWeight + grassWeight;
+		for(int i = 0; i < types.length; i++){
+			if(types[i] != MapTile.TYPE_ROAD || random.nextFloat() >= trapDensity){
+				continue;
+			}
+			float kind = random.nextFloat() * total;
+			if(kind < lavaWeight){
+				types[i] = MapTile.TYPE_LAVA;
+			}
+			else if(kind < lavaWeight + mudWeight){
+				types[i] = MapTile.TYPE_MUD;
+			}
+			else{
+				types[i] = MapTile.TYPE_GRASS;
+			}
+		}
+	}
+
+	// Exits go in edge walls next to a corridor, away from the start's corner
+	private void placeExits(byte[] types, Random random){
+		int[] candidates = new int[2 * (width + height)];
+		int count = 0;
+		for(int x = 1; x < width - 1; x++){
+			count = addExitCandidate(types, candidates, count, x, height - 1, x, height - 2);
+			if(x > corridorWidth + 1){
+				count = addExitCandidate(types, candidates, count, x, 0, x, 1);
+			}
+		}
+		for(int y = 1; y < height - 1; y++){
+			count = addExitCandidate(types, candidates, count, width - 1, y, width - 2, y);
+			if(y > corridorWidth + 1){
+				count = addExitCandidate(types, candidates, count, 0, y, 1, y);
+			}
+		}
+
+		// A partial shuffle picks the exits without repeats
+		for(int i = 0; i < exitCount && i < count; i++){
+			int pick = i + random.nextInt(count - i);
+			int exit = candidates[pick];
+			candidates[pick] = candidates[i];
+			types[exit] = MapTile.TYPE_EXIT;
+		}
+	}
+
+	private int addExitCandidate(byte[] types, int[] candidates, int count, int x, int y, int insideX, int insideY){
+		byte inside = types[insideX + insideY * width];
+		if(inside != MapTile.TYPE_WALL && inside != MapTile.TYPE_START){
+			candidates[count++] = x + y * width;
+		}
+		return count;
+	}
+
+	private static String trapType(byte type){
+		switch(type){
+		case MapTile.TYPE_LAVA:
+			return "LavaTrap";
+		case MapTile.TYPE_MUD:
+			return "MudTrap";
+		case MapTile.TYPE_GRASS:
+			return "GrassTrap";
+		default:
+			return null;
+		}
+	}
+
+	private void write(byte[] types, Writer out) throws IOException {
+		try {
+			out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+			out.write("<map version=\"1.0\" orientation=\"orthogonal\" renderorder=\"right-down\" width=\"" + width
+					+ "\" height=\"" + height + "\" tilewidth=\"32\" tileheight=\"32\">\n");
+			out.write(TILESET);
+			for(String layerName : TileGridBuilder.LAYER_NAME){
+				writeLayer(types, layerName, out);
+			}
+			out.write("</map>\n");
+		} finally {
+			out.close();
+		}
+	}
+
+	private void writeLayer(byte[] types, String layerName, Writer out) throws IOException {
+		out.write(" <layer name=\"" + layerName + "\" width=\"" + width + "\" height=\"" + height + "\">\n");
+		out.write("  <data encoding=\"csv\">\n");
+		// Rows from the top, as Tiled stores them
+		for(int y = height - 1; y >= 0; y--){
+			StringBuilder row = new StringBuilder(width * 2);
+			for(int x = 0; x < width; x++){
+				row.append(gid(types[x + y * width], layerName));
+				if(x < width - 1 || y > 0){
+					row.append(',');
+				}
+			}
+			row.append('\n');
+			out.write(row.toString());
+		}
+		out.write("  </data>\n");
+		out.write(" </layer>\n");
+	}
+
+	// The tile's gid on the named layer, 0 if it isn't on that layer
+	private static int gid(byte type, String layerName){
+		switch(layerName){
+		case "Road":
+			return type == MapTile.TYPE_WALL ? 0 : GID_ROAD;
+		case "Utility":
+			return type == MapTile.TYPE_START ? GID_START : (type == MapTile.TYPE_EXIT ? GID_EXIT : 0);
+		case "Trap":
+			return type == MapTile.TYPE_LAVA ? GID_LAVA : (type == MapTile.TYPE_MUD ? GID_MUD : (type == MapTile.TYPE_GRASS ? GID_GRASS : 0));
+		default:
+			return type == MapTile.TYPE_WALL ? GID_WALL : 0;
+		}
+	}
+
+	/**
+	 * Usage: MazeGenerator [-corridor N] [-deadends F] [-traps F lava mud grass] [-exits N]
+	 *                      width height seed out.tmx
+	 */
+	public static void main(String[] args) throws IOException {
+		int corridorWidth = 1;
+		float deadEndDensity = 1;
+		float[] traps = {0, 1, 1, 1};
+		int exitCount = 1;
+		int first = 0;
+		while(first < args.length && args[first].startsWith("-")){
+			String option = args[first++];
+			if(option.equals("-corridor") && first < args.length){
+				corridorWidth = Integer.parseInt(args[first++]);
+			}
+			else if(option.equals("-deadends") && first < args.length){
+				deadEndDensity = Float.parseFloat(args[first++]);
+			}
+			else if(option.equals("-traps") && first + 3 < args.length){
+				for(int i = 0; i < traps.length; i++){
+					traps[i] = Float.parseFloat(args[first++]);
+				}
+			}
+			else if(option.equals("-exits") && first < args.length){
+				exitCount = Integer.parseInt(args[first++]);
+			}
+			else{
+				first = args.length;
+			}
+		}
+		if(args.length - first != 4){
+			System.err.println("Usage: MazeGenerator [-corridor N] [-deadends F] [-traps F lava mud grass] [-exits N] <width> <height> <seed> <out.tmx>");
+			System.exit(2);
+		}
+
+		MazeGenerator generator = new MazeGenerator(Integer.parseInt(args[first]), Integer.parseInt(args[first + 1]),
+				Long.parseLong(args[first + 2]));
+		generator.setCorridorWidth(corridorWidth);
+		generator.setDeadEndDensity(deadEndDensity);
+		generator.setTraps(traps[0], traps[1], traps[2], traps[3]);
+		generator.setExitCount(exitCount);
+		generator.writeTmx(new File(args[first + 3]));
+	}
+}
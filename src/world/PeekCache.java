@@ -0,0 +1,251 @@
+package world;
+
+import java.util.Arrays;
+
+import tiles.MapTile;
+import utilities.Coordinate;
+import utilities.PeekTuple;
+
+/**
+ * Remembers peek's predictions so a controller peeking every update doesn't redo the same
+ * ones. A prediction is keyed by the car's state, quantised, and by the walls around the car,
+ * and is kept relative to the car's tile. So driving down a corridor the same manoeuvre from
+ * the same spot in a tile hits the cache, tile after tile.
+ *
+ * Predictions are for the first state seen in a bucket, a 64th of a tile wide in position, a
+ * 64th of a tile per second in velocity and a 64th of a degree in rotation, so they can
+ * differ from peek's by a tile when a turn ends near a tile's edge. The cache is bounded, entries are evicted per
+ * set with CLOCK, and nothing is allocated past peek's result.
+ */
+public class PeekCache {
+
+	// Buckets per tile, per tile per second and per degree
+	private static final float QUANTUM = 64;
+	private static final int WAYS = 8;
+	private static final int DEFAULT_CAPACITY = 4096;
+
+	// Manoeuvres that could reach further than this many tiles aren't cached
+	private static final int MAX_RADIUS = 12;
+	// The most the car's speed changes by in a second, its engine and friction together
+	private static final float MAX_ACCELERATION = 2.5f;
+	private static final float MAX_SPEED = 5f;
+
+	private final Car car;
+	private final World world;
+	private final TrajectoryPredictor predictor;
+	private final TrajectoryPredictor.Prediction prediction = new TrajectoryPredictor.Prediction();
+
+	// Each entry's key, in four parts, and its prediction relative to the car's tile
+	private final int sets;
+	private final boolean[] used;
+	private final boolean[] referenced;
+	private final long[] kinematics;
+	private final long[] turn;
+	private final long[] target;
+	private final long[] walls;
+	private final int[] endX;
+	private final int[] endY;
+	private final boolean[] reachable;
+	// The next way of each set to consider evicting
+	private final int[] hands;
+
+	// Wall neighbourhoods of recent tiles, the car stays on one for many updates
+	private static final int NEIGHBOURHOOD_CACHE_SIZE = 64;
+	private final boolean[] neighbourhoodCached = new boolean[NEIGHBOURHOOD_CACHE_SIZE];
+	private final long[] neighbourhoodKey = new long[NEIGHBOURHOOD_CACHE_SIZE];
+	private final long[] neighbourhoodHash = new long[NEIGHBOURHOOD_CACHE_SIZE];
+
+	private long hits;
+	private long misses;
+
+	PeekCache(Car car, World world, TrajectoryPredictor predictor){
+		this(car, world, predictor, DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * @param capacity how many predictions to keep, rounded up to a power of two sets of WAYS
+	 */
+	PeekCache(Car car, World world, TrajectoryPredictor predictor, int capacity){
+		this.car = car;
+		this.world = world;
+		this.predictor = predictor;
+		int sets = 1;
+		while(sets * WAYS < capacity){
+			sets *= 2;
+		}
+		this.sets = sets;
+		int entries = sets * WAYS;
+		used = new boolean[entries];
+		referenced = new boolean[entries];
+		kinematics = new long[entries];
+		turn = new long[entries];
+		target = new long[entries];
+		walls = new long[entries];
+		endX = new int[entries];
+		endY = new int[entries];
+		reachable = new boolean[entries];
+		hands = new int[sets];
+	}
+
+	/**
+	 * As Car.peek, from the cache when the car has been in the same state near the same walls
+	 */
+	public PeekTuple peek(float velocityX, float velocityY, float degree, WorldSpatial.RelativeDirection turnDirection, float delta){
+		float x = car.getX();
+		float y = car.getY();
+		int tileX = Math.round(x);
+		int tileY = Math.round(y);
+		float rotation = car.getRawRotation();
+
+		int radius = radius(velocityX, velocityY, rotation, degree, delta);
+		if(radius > MAX_RADIUS){
+			misses++;
+			return predict(velocityX, velocityY, degree, turnDirection, delta);
+		}
+
+		long kinematicsKey = offset(x - tileX)
+				| offset(y - tileY) << 8
+				| velocity(velocityX) << 16
+				| velocity(velocityY) << 28
+				| (long) turnDirection.ordinal() << 40
+				| (car.isAccelerating() ? 1L << 42 : 0)
+				| (car.isReversing() ? 1L << 43 : 0)
+				| (car.isMovingForward() ? 1L << 44 : 0);
+		long turnKey = (long) quantise(rotation) << 32 | (quantise(car.getTurnAngle()) & 0xFFFFFFFFL);
+		long targetKey = (long) Float.floatToIntBits(degree) << 32 | (Float.floatToIntBits(delta) & 0xFFFFFFFFL);
+		long wallKey = neighbourhood(tileX, tileY, radius);
+
+		long hash = kinematicsKey * 0x9E3779B97F4A7C15L;
+		hash = (hash ^ turnKey) * 0x9E3779B97F4A7C15L;
+		hash = (hash ^ targetKey) * 0x9E3779B97F4A7C15L;
+		hash = (hash ^ wallKey) * 0x9E3779B97F4A7C15L;
+		int first = (int) (hash >>> 40) & (sets - 1);
+		first *= WAYS;
+
+		for(int i = first; i < first + WAYS; i++){
+			if(used[i] && kinematics[i] == kinematicsKey && turn[i] == turnKey && target[i] == targetKey && walls[i] == wallKey){
+				hits++;
+				referenced[i] = true;
+				return new PeekTuple(new Coordinate(tileX + endX[i], tileY + endY[i]), reachable[i]);
+			}
+		}
+
+		misses++;
+		predictor.predict(velocityX, velocityY, degree, turnDirection, delta, prediction, null);
+		int slot = evict(first);
+		used[slot] = true;
+		referenced[slot] = false;
+		kinematics[slot] = kinematicsKey;
+		turn[slot] = turnKey;
+		target[slot] = targetKey;
+		walls[slot] = wallKey;
+		endX[slot] = prediction.getEndX() - tileX;
+		endY[slot] = prediction.getEndY() - tileY;
+		reachable[slot] = prediction.isReachable();
+		return new PeekTuple(new Coordinate(prediction.getEndX(), prediction.getEndY()), prediction.isReachable());
+	}
+
+	private PeekTuple predict(float velocityX, float velocityY, float degree, WorldSpatial.RelativeDirection turnDirection, float delta){
+		predictor.predict(velocityX, velocityY, degree, turnDirection, delta, prediction, null);
+		return new PeekTuple(new Coordinate(prediction.getEndX(), prediction.getEndY()), prediction.isReachable());
+	}
+
+	/**
+	 * The way of the set to replace, the first unused one, or by CLOCK the first the hand
+	 * reaches that hasn't been hit since it was last passed
+	 */
+	private int evict(int first){
+		for(int i = first; i < first + WAYS; i++){
+			if(!used[i]){
+				return i;
+			}
+		}
+		int set = first / WAYS;
+		while(true){
+			int slot = first + hands[set];
+			hands[set] = (hands[set] + 1) % WAYS;
+			if(!referenced[slot]){
+				return slot;
+			}
+			referenced[slot] = false;
+		}
+	}
+
+	/**
+	 * How many tiles from its own the car could end up, as steps are counted by peek, with
+	 * a tile to spare for the quantised position
+	 */
+	private static int radius(float velocityX, float velocityY, float rotation, float degree, float delta){
+		float steps = Math.round(Math.abs(rotation - degree) / (150f * delta));
+		float time = steps * delta;
+		float speed = (float) Math.sqrt(velocityX * velocityX + velocityY * velocityY);
+		float reach = Math.min(MAX_SPEED * time, speed * time + MAX_ACCELERATION / 2 * time * (time + delta));
+		// NaN or huge, from odd degrees or deltas, isn't cached either
+		if(!(reach < MAX_RADIUS)){
+			return MAX_RADIUS + 1;
+		}
+		return (int) Math.ceil(reach) + 1;
+	}
+
+	/**
+	 * A hash of where the walls are within radius of the tile
+	 */
+	private long neighbourhood(int tileX, int tileY, int radius){
+		long key = (long) tileX << 36 | (long) (tileY & 0xFFFFFFF) << 4 | radius;
+		int slot = (int) ((key * 0x9E3779B97F4A7C15L) >>> 58);
+		if(neighbourhoodCached[slot] && neighbourhoodKey[slot] == key){
+			return neighbourhoodHash[slot];
+		}
+
+		// FNV-1a over each row's walls as a bit mask
+		long hash = 0xCBF29CE484222325L ^ radius;
+		for(int y = tileY - radius; y <= tileY + radius; y++){
+			int row = 0;
+			for(int x = tileX - radius; x <= tileX + radius; x++){
+				row <<= 1;
+				if(world.lookUp(x, y).getType() == MapTile.TYPE_WALL){
+					row |= 1;
+				}
+			}
+			hash = (hash ^ row) * 0x100000001B3L;
+		}
+
+		neighbourhoodCached[slot] = true;
+		neighbourhoodKey[slot] = key;
+		neighbourhoodHash[slot] = hash;
+		return hash;
+	}
+
+	private static long offset(float offset){
+		int bucket = (int) Math.floor((offset + 0.5f) * QUANTUM);
+		return Math.max(0, Math.min((int) QUANTUM - 1, bucket));
+	}
+
+	private static long velocity(float velocity){
+		// Peek's velocity is the car's, so within MAX_SPEED
+		int bucket = (int) Math.floor(velocity * QUANTUM) + (int) (MAX_SPEED * QUANTUM);
+		return Math.max(0, Math.min(2 * (int) (MAX_SPEED * QUANTUM), bucket));
+	}
+
+	private static int quantise(float degrees){
+		return (int) Math.floor(degrees * QUANTUM);
+	}
+
+	public long getHits(){
+		return hits;
+	}
+
+	public long getMisses(){
+		return misses;
+	}
+
+	/**
+	 * Forgets every prediction and zeroes the counters
+	 */
+	public void clear(){
+		Arrays.fill(used, false);
+		Arrays.fill(neighbourhoodCached, false);
+		hits = 0;
+		misses = 0;
+	}
+}
@@ -0,0 +1,77 @@
+package world;
+
+import com.badlogic.gdx.math.MathUtils;
+
+/**
+ * Sine and cosine of a car's recent rotations, and the direction friction acts at each, worked
+ * out the way Vector2.rotate and angle do so the physics comes out exactly as it did with
+ * Vector2s. A car spends most of its time pointing one of the four ways, so nearly every
+ * rotation it's asked about is already known.
+ */
+final class RotationTrig {
+
+	private static final float MAX_DEGREES = 360;
+
+	// Vector2.rotate(180) isn't an exact negation, so it's applied with the same sin and cos
+	static final float COS_180 = (float) Math.cos(180 * MathUtils.degreesToRadians);
+	static final float SIN_180 = (float) Math.sin(180 * MathUtils.degreesToRadians);
+
+	// Direct mapped by the rotation's bits
+	private static final int SIZE = 256;
+	private final int[] rotations = new int[SIZE];
+	private final boolean[] known = new boolean[SIZE];
+	private final float[] cosines = new float[SIZE];
+	private final float[] sines = new float[SIZE];
+	private final float[] drivingFrictionCosines = new float[SIZE];
+	private final float[] drivingFrictionSines = new float[SIZE];
+	private final float[] coastingFrictionCosines = new float[SIZE];
+	private final float[] coastingFrictionSines = new float[SIZE];
+
+	// Of the rotation last set
+	float cos;
+	float sin;
+	// Friction's direction while the engine drives the car, opposite the engine's force
+	float drivingFrictionCos;
+	float drivingFrictionSin;
+	// And while it doesn't, opposite the rotation
+	float coastingFrictionCos;
+	float coastingFrictionSin;
+
+	void set(float rotation){
+		int bits = Float.floatToRawIntBits(rotation);
+		int slot = (bits ^ (bits >>> 16)) & (SIZE - 1);
+		if(!known[slot] || rotations[slot] != bits){
+			compute(slot, rotation);
+		}
+		cos = cosines[slot];
+		sin = sines[slot];
+		drivingFrictionCos = drivingFrictionCosines[slot];
+		drivingFrictionSin = drivingFrictionSines[slot];
+		coastingFrictionCos = coastingFrictionCosines[slot];
+		coastingFrictionSin = coastingFrictionSines[slot];
+	}
+
+	private void compute(int slot, float rotation){
+		float radians = rotation * MathUtils.degreesToRadians;
+		float cos = (float) Math.cos(radians);
+		float sin = (float) Math.sin(radians);
+
+		// The engine's force points along the rotation, its angle as Vector2.angle finds it.
+		// Engine forces are scaled by a power of two, which doesn't change the angle.
+		float engineAngle = (float) Math.atan2(sin, cos) * MathUtils.radiansToDegrees;
+		if(engineAngle < 0){
+			engineAngle += 360;
+		}
+		float drivingRadians = (engineAngle - MAX_DEGREES / 2) * MathUtils.degreesToRadians;
+		float coastingRadians = ((rotation - MAX_DEGREES / 2) % MAX_DEGREES) * MathUtils.degreesToRadians;
+
+		known[slot] = true;
+		rotations[slot] = Float.floatToRawIntBits(rotation);
+		cosines[slot] = cos;
+		sines[slot] = sin;
+		drivingFrictionCosines[slot] = (float) Math.cos(drivingRadians);
+		drivingFrictionSines[slot] = (float) Math.sin(drivingRadians);
+		coastingFrictionCosines[slot] = (float) Math.cos(coastingRadians);
+		coastingFrictionSines[slot] = (float) Math.sin(coastingRadians);
+	}
+}
@@ -0,0 +1,143 @@
+package world;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads back a log written by RunRecorder a tick at a time.
+ */
+public class RunLogReader {
+	
+	/**
+	 * Receives the inputs of a tick in the order they were given
+	 */
+	public interface InputHandler {
+		void applyForwardAcceleration();
+		void applyReverseAcceleration();
+		void applyBrake();
+		void turnLeft(float delta);
+		void turnRight(float delta);
+	}
+	
+	private final DataInputStream in;
+	private final int mapWidth;
+	private final int mapHeight;
+	private final long mapChecksum;
+	private final int carWidth;
+	private final int carHeight;
+	private float tickDelta;
+	// Opcode read past the end of the current tick's inputs, -1 at the end of the log
+	private int next;
+	
+	public RunLogReader(InputStream in) throws IOException {
+		this.in = new DataInputStream(new BufferedInputStream(in));
+		if(this.in.readInt() != RunRecorder.MAGIC){
+			throw new IOException("Not a run log");
+		}
+		byte version = this.in.readByte();
+		if(version != RunRecorder.VERSION){
+			throw new IOException("Unsupported run log version " + version);
+		}
+		mapWidth = this.in.readInt();
+		mapHeight = this.in.readInt();
+		mapChecksum = this.in.readLong();
+		carWidth = this.in.readInt();
+		carHeight = this.in.readInt();
+		next = readOpcode();
+	}
+	
+	/**
+	 * The size in pixels of the car the run was recorded with
+	 */
+	public int getCarWidth(){
+		return carWidth;
+	}
+	
+	public int getCarHeight(){
+		return carHeight;
+	}
+	
+	/**
+	 * Checks the world is the one the run was recorded in, otherwise the replay would diverge
+	 */
+	public void checkWorld(World world) throws IOException {
+		if(mapWidth != world.getWidth() || mapHeight != world.getHeight() || mapChecksum != RunRecorder.mapChecksum(world)){
+			throw new IOException("Run log was recorded on a different map");
+		}
+		Car car = world.getCar();
+		if(carWidth != car.getCarWidth() || carHeight != car.getCarHeight()){
+			throw new IOException("Run log was recorded with a " + carWidth + "x" + carHeight + " car");
+		}
+	}
+	
+	/**
+	 * Whether there's another tick to replay
+	 */
+	public boolean hasNextTick(){
+		return next != -1;
+	}
+	
+	/**
+	 * Moves on to the next tick, returning its delta. Its inputs must be read with
+	 * applyInputs before moving on again.
+	 */
+	public float nextTick() throws IOException {
+		if(next == RunRecorder.TICK){
+			tickDelta = Float.intBitsToFloat(in.readInt());
+		}
+		else if(next != RunRecorder.TICK_SAME_DELTA){
+			throw new IOException("Expected a tick but found opcode " + next);
+		}
+		next = readOpcode();
+		return tickDelta;
+	}
+	
+	/**
+	 * Passes the current tick's inputs to the handler
+	 */
+	public void applyInputs(InputHandler handler) throws IOException {
+		while(next != -1 && next != RunRecorder.TICK && next != RunRecorder.TICK_SAME_DELTA){
+			switch(next){
+			case RunRecorder.FORWARD:
+				handler.applyForwardAcceleration();
+				break;
+			case RunRecorder.REVERSE:
+				handler.applyReverseAcceleration();
+				break;
+			case RunRecorder.BRAKE:
+				handler.applyBrake();
+				break;
+			case RunRecorder.TURN_LEFT:
+				handler.turnLeft(Float.intBitsToFloat(in.readInt()));
+				break;
+			case RunRecorder.TURN_RIGHT:
+				handler.turnRight(Float.intBitsToFloat(in.readInt()));
+				break;
+			case RunRecorder.TURN_LEFT_TICK:
+				handler.turnLeft(tickDelta);
+				break;
+			case RunRecorder.TURN_RIGHT_TICK:
+				handler.turnRight(tickDelta);
+				break;
+			default:
+				throw new IOException("Unknown opcode " + next);
+			}
+			next = readOpcode();
+		}
+	}
+	
+	private int readOpcode() throws IOException {
+		try {
+			return in.readUnsignedByte();
+		} catch (EOFException e) {
+			return -1;
+		}
+	}
+	
+	public void close() throws IOException {
+		in.close();
+	}
+}
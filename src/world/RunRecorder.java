@@ -0,0 +1,105 @@
+package world;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.zip.CRC32;
+
+/**
+ * Logs every tick's delta and every control input given to the car, so the run can be
+ * replayed exactly with RunLogReader. The log is a header identifying the map and the car's
+ * size, then for each
+ * tick a tick marker followed by the inputs given during it, one opcode byte each. Deltas
+ * are only written when they change.
+ */
+public class RunRecorder {
+	
+	static final int MAGIC = 0x53575250; // "SWRP"
+	static final byte VERSION = 1;
+	
+	static final byte TICK = 0;
+	static final byte TICK_SAME_DELTA = 1;
+	static final byte FORWARD = 2;
+	static final byte REVERSE = 3;
+	static final byte BRAKE = 4;
+	static final byte TURN_LEFT = 5;
+	static final byte TURN_RIGHT = 6;
+	// Turns by the current tick's delta, which is what controllers nearly always pass
+	static final byte TURN_LEFT_TICK = 7;
+	static final byte TURN_RIGHT_TICK = 8;
+	
+	private final DataOutputStream out;
+	private boolean started = false;
+	private int tickDeltaBits;
+	
+	public RunRecorder(World world, OutputStream out) throws IOException {
+		this.out = new DataOutputStream(new BufferedOutputStream(out));
+		this.out.writeInt(MAGIC);
+		this.out.writeByte(VERSION);
+		this.out.writeInt(world.getWidth());
+		this.out.writeInt(world.getHeight());
+		this.out.writeLong(mapChecksum(world));
+		// Collisions depend on the car's size, which comes from its texture
+		this.out.writeInt(world.getCar().getCarWidth());
+		this.out.writeInt(world.getCar().getCarHeight());
+	}
+	
+	/**
+	 * Checksum of every tile's type, so a log isn't replayed on a different map
+	 */
+	static long mapChecksum(World world){
+		CRC32 crc = new CRC32();
+		for(int y = 0; y < world.getHeight(); y++){
+			for(int x = 0; x < world.getWidth(); x++){
+				crc.update(world.lookUp(x, y).getType());
+			}
+		}
+		return crc.getValue();
+	}
+	
+	void beginTick(float delta){
+		int bits = Float.floatToRawIntBits(delta);
+		try {
+			if(started && bits == tickDeltaBits){
+				out.writeByte(TICK_SAME_DELTA);
+			}
+			else{
+				out.writeByte(TICK);
+				out.writeInt(bits);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		started = true;
+		tickDeltaBits = bits;
+	}
+	
+	void record(byte input){
+		try {
+			out.writeByte(input);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	void recordTurn(byte input, byte tickInput, float delta){
+		int bits = Float.floatToRawIntBits(delta);
+		try {
+			if(started && bits == tickDeltaBits){
+				out.writeByte(tickInput);
+			}
+			else{
+				out.writeByte(input);
+				out.writeInt(bits);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	public void close() throws IOException {
+		out.close();
+	}
+}
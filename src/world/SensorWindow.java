@@ -0,0 +1,140 @@
+package world;
+
+import tiles.MapTile;
+
+/**
+ * A read-only square of tiles centred on the car, read straight out of the world
+ * grid rather than copied. Tiles are addressed relative to the car, so (1,0) is the
+ * tile to the east and (0,1) the tile to the north.
+ * 
+ * The car hands out the same instance every tick and re-centres it each time, so
+ * hold on to coordinates rather than the window if you need them later.
+ */
+public class SensorWindow {
+	
+	/**
+	 * Receives tiles from the window, given in absolute map coordinates
+	 */
+	public interface TileVisitor {
+		void visit(int x, int y, MapTile tile);
+	}
+	
+	private final World world;
+	private final int radius;
+	
+	private int centreX;
+	private int centreY;
+	
+	// Centre of the window as of the last visitRevealed call
+	private boolean revealed = false;
+	private int revealedX;
+	private int revealedY;
+	
+	SensorWindow(World world, int radius){
+		this.world = world;
+		this.radius = radius;
+	}
+	
+	void recentre(int x, int y){
+		this.centreX = x;
+		this.centreY = y;
+	}
+	
+	/**
+	 * How many tiles the window reaches out from the car in each direction
+	 */
+	public int getRadius(){
+		return radius;
+	}
+	
+	/**
+	 * The x coordinate of the tile the window is centred on
+	 */
+	public int getCentreX(){
+		return centreX;
+	}
+	
+	/**
+	 * The y coordinate of the tile the window is centred on
+	 */
+	public int getCentreY(){
+		return centreY;
+	}
+	
+	/**
+	 * Whether a relative offset falls inside the window
+	 */
+	public boolean contains(int dx, int dy){
+		return Math.abs(dx) <= radius && Math.abs(dy) <= radius;
+	}
+	
+	/**
+	 * Returns the tile at an offset from the car, or null if the offset is outside
+	 * the window.
+	 */
+	public MapTile tileAt(int dx, int dy){
+		if(!contains(dx, dy)){
+			return null;
+		}
+		return world.lookUp(centreX + dx, centreY + dy);
+	}
+	
+	/**
+	 * Visits every tile in the window
+	 */
+	public void visitAll(TileVisitor visitor){
+		visitRect(visitor, centreX - radius, centreX + radius, centreY - radius, centreY + radius);
+	}
+	
+	/**
+	 * Visits only the tiles that are in the window now but were not in it at the
+	 * previous call. The first call visits the whole window, a stationary car visits
+	 * nothing and a one tile move visits a single strip along the leading edge.
+	 */
+	public void visitRevealed(TileVisitor visitor){
+		int dx = centreX - revealedX;
+		int dy = centreY - revealedY;
+		
+		if(!revealed || Math.abs(dx) > 2 * radius || Math.abs(dy) > 2 * radius){
+			visitAll(visitor);
+		}
+		else if(dx != 0 || dy != 0){
+			int minX = centreX - radius;
+			int maxX = centreX + radius;
+			int minY = centreY - radius;
+			int maxY = centreY + radius;
+			
+			// Whole columns that were outside the old window
+			int keptMinX = minX;
+			int keptMaxX = maxX;
+			if(dx > 0){
+				keptMaxX = maxX - dx;
+				visitRect(visitor, keptMaxX + 1, maxX, minY, maxY);
+			}
+			else if(dx < 0){
+				keptMinX = minX - dx;
+				visitRect(visitor, minX, keptMinX - 1, minY, maxY);
+			}
+			
+			// Rows of the remaining columns that were outside the old window
+			if(dy > 0){
+				visitRect(visitor, keptMinX, keptMaxX, maxY - dy + 1, maxY);
+			}
+			else if(dy < 0){
+				visitRect(visitor, keptMinX, keptMaxX, minY, minY - dy - 1);
+			}
+		}
+		
+		revealed = true;
+		revealedX = centreX;
+		revealedY = centreY;
+	}
+	
+	private void visitRect(TileVisitor visitor, int minX, int maxX, int minY, int maxY){
+		for(int x = minX; x <= maxX; x++){
+			for(int y = minY; y <= maxY; y++){
+				visitor.visit(x, y, world.lookUp(x, y));
+			}
+		}
+	}
+}
@@ -0,0 +1,293 @@
+package world;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+import tiles.MapTile;
+import tiles.TrapRegistry;
+import tiles.TrapTile;
+import tiles.UtilityTile;
+import utilities.Coordinate;
+
+/**
+ * Turns layer cells into the world's tile grid. Shared by every map source so they all
+ * resolve layers, trap types and the start location the same way.
+ */
+class TileGridBuilder {
+
+	static final String[] LAYER_NAME = {"Road","Utility","Trap","Wall"};
+
+	// Maps smaller than this are decoded on the calling thread, forking would cost more
+	private static final int PARALLEL_CELLS = 1 << 14;
+	// Cells merged by each task, whole rows at a time
+	private static final int MERGE_BAND_CELLS = 1 << 16;
+
+	private final int width;
+	private final int height;
+	private final MapTile[] tiles;
+
+	// Tiles carry no per-cell state, so one shared instance of each kind covers the map
+	private final MapTile road = new MapTile("Road");
+	private final MapTile wall = new MapTile("Wall");
+	private final MapTile start = new UtilityTile("Utility", UtilityTile.Type.START);
+	private final MapTile exit = new UtilityTile("Utility", UtilityTile.Type.EXIT);
+	// By type property, layers decoding in parallel share them
+	private final ConcurrentHashMap<String,TrapTile> traps;
+
+	private int startX = -1;
+	private int startY = -1;
+
+	// Null until asked for or given, when it's found from the tiles
+	private List<Coordinate> exits;
+
+	TileGridBuilder(int width, int height){
+		this(width, height, new MapTile[width * height], new ConcurrentHashMap<String,TrapTile>());
+	}
+
+	private TileGridBuilder(int width, int height, MapTile[] tiles, ConcurrentHashMap<String,TrapTile> traps){
+		this.width = width;
+		this.height = height;
+		this.tiles = tiles;
+		this.traps = traps;
+	}
+
+	/**
+	 * Decodes a map's layer into a Layer, doing nothing if the map doesn't have it
+	 */
+	interface LayerDecoder {
+		void decode(Layer layer) throws IOException;
+	}
+
+	/**
+	 * One layer's cells, decoded on their own and merged into the grid afterwards
+	 */
+	final class Layer {
+
+		private final String name;
+		// Allocated on the first cell, so missing layers cost nothing
+		private MapTile[] cells;
+		private int startX = -1;
+		private int startY = -1;
+
+		private Layer(String name){
+			this.name = name;
+		}
+
+		String getName(){
+			return name;
+		}
+
+		/**
+		 * Places a tile from tileFor, cells off the grid are ignored
+		 */
+		void set(int x, int y, MapTile tile){
+			if(x < 0 || y < 0 || x >= width || y >= height){
+				return;
+			}
+			if(cells == null){
+				cells = new MapTile[width * height];
+			}
+			cells[x + y * width] = tile;
+		}
+
+		/**
+		 * Marks a cell with the startLocation property, only the Utility layer's count
+		 */
+		void markStart(int x, int y){
+			// The first start location by column then row, as the original layer scan found it
+			if(startX < 0 || x < startX || (x == startX && y < startY)){
+				startX = x;
+				startY = y;
+			}
+		}
+	}
+
+	/**
+	 * Decodes every layer, in parallel on large maps, then merges them so later layers in
+	 * LAYER_NAME take precedence.
+	 */
+	void decodeLayers(final LayerDecoder decoder) throws IOException {
+		final Layer[] layers = new Layer[LAYER_NAME.length];
+		List<RecursiveAction> decodes = new ArrayList<RecursiveAction>();
+		for(int i = 0; i < layers.length; i++){
+			final Layer layer = new Layer(LAYER_NAME[i]);
+			layers[i] = layer;
+			decodes.add(new RecursiveAction(){
+				@Override
+				protected void compute(){
+					try {
+						decoder.decode(layer);
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+				}
+			});
+		}
+		try {
+			invokeAll(decodes);
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+
+		for(Layer layer : layers){
+			if(layer.name.equals("Utility") && layer.startX >= 0){
+				setStart(layer.startX, layer.startY);
+			}
+		}
+
+		List<RecursiveAction> merges = new ArrayList<RecursiveAction>();
+		int bandRows = Math.max(1, MERGE_BAND_CELLS / Math.max(1, width));
+		for(int row = 0; row < height; row += bandRows){
+			final int from = row * width;
+			final int to = Math.min(height, row + bandRows) * width;
+			merges.add(new RecursiveAction(){
+				@Override
+				protected void compute(){
+					merge(layers, from, to);
+				}
+			});
+		}
+		invokeAll(merges);
+	}
+
+	private void merge(Layer[] layers, int from, int to){
+		for(Layer layer : layers){
+			MapTile[] cells = layer.cells;
+			if(cells == null){
+				continue;
+			}
+			for(int i = from; i < to; i++){
+				if(cells[i] != null){
+					tiles[i] = cells[i];
+				}
+			}
+		}
+	}
+
+	private void invokeAll(List<RecursiveAction> tasks){
+		if(tiles.length < PARALLEL_CELLS){
+			for(RecursiveAction task : tasks){
+				task.invoke();
+			}
+		}
+		else{
+			// Joins the caller's pool if it has one, e.g. a batch run, otherwise the common pool
+			ForkJoinTask.invokeAll(tasks);
+		}
+	}
+
+	/**
+	 * The shared tile for a cell of the named layer, safe to call from any thread
+	 * @throws IllegalArgumentException if it's a trap of an unregistered type
+	 */
+	MapTile tileFor(String layerName, String trapType, boolean isExit){
+		if(layerName.equals("Trap")){
+			return trap(trapType);
+		}
+		else if(layerName.equals("Utility")){
+			return isExit ? exit : start;
+		}
+		else if(layerName.equals("Wall")){
+			return wall;
+		}
+		return road;
+	}
+
+	/**
+	 * The shared tile of the given type code, trapType is the type property of trap tiles
+	 */
+	MapTile tile(byte type, String trapType){
+		switch(type){
+		case MapTile.TYPE_EMPTY:
+			return null;
+		case MapTile.TYPE_ROAD:
+			return road;
+		case MapTile.TYPE_WALL:
+			return wall;
+		case MapTile.TYPE_START:
+			return start;
+		case MapTile.TYPE_EXIT:
+			return exit;
+		default:
+			return trap(trapType);
+		}
+	}
+
+	private TrapTile trap(String trapType){
+		TrapTile trap = trapType == null ? null : traps.get(trapType);
+		if(trap == null){
+			TrapTile created = TrapRegistry.factory(trapType).create();
+			trap = traps.putIfAbsent(trapType, created);
+			if(trap == null){
+				trap = created;
+			}
+		}
+		return trap;
+	}
+
+	/**
+	 * The type property a trap tile on this grid was made from
+	 */
+	String trapTypeOf(MapTile tile){
+		for(Map.Entry<String,TrapTile> entry : traps.entrySet()){
+			if(entry.getValue() == tile){
+				return entry.getKey();
+			}
+		}
+		throw new IllegalArgumentException(tile.getName() + " tile isn't one of this grid's traps");
+	}
+
+	/**
+	 * A grid with the same tiles and start that can be changed independently of this one
+	 */
+	TileGridBuilder copy(){
+		TileGridBuilder copy = new TileGridBuilder(width, height, tiles.clone(), traps);
+		copy.setStart(startX, startY);
+		return copy;
+	}
+
+	int getWidth(){
+		return width;
+	}
+
+	int getHeight(){
+		return height;
+	}
+
+	MapTile[] getTiles(){
+		return tiles;
+	}
+
+	void setStart(int x, int y){
+		startX = x;
+		startY = y;
+	}
+
+	/** Every exit tile on the grid, by row then column */
+	List<Coordinate> getExits(){
+		if(exits == null){
+			exits = new ArrayList<Coordinate>();
+			for(int i = 0; i < tiles.length; i++){
+				if(tiles[i] != null && tiles[i].getType() == MapTile.TYPE_EXIT){
+					exits.add(new Coordinate(i % width, i / width));
+				}
+			}
+		}
+		return exits;
+	}
+
+	void setExits(List<Coordinate> exits){
+		this.exits = exits;
+	}
+
+	/** The start location, or null if the map doesn't define one */
+	Coordinate getStart(){
+		return startX < 0 ? null : new Coordinate(startX, startY);
+	}
+}
@@ -0,0 +1,295 @@
+package world;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+import tiles.MapTile;
+
+/**
+ * Reads a Tiled .tmx map straight into a World without libGDX, so maps can be simulated
+ * without a GL context. Supports csv, base64 (optionally zlib or gzip compressed) and xml
+ * layer data, and tilesets that are embedded or in external .tsx files.
+ */
+public class TmxMapReader {
+
+	// Tiled stores flipping in the top bits of each gid
+	private static final int FLIP_FLAGS = 0xE0000000;
+
+	// Properties of each tile that has any, by gid
+	private final HashMap<Integer,HashMap<String,Object>> tileProperties = new HashMap<Integer,HashMap<String,Object>>();
+
+	private TmxMapReader(){
+	}
+
+	public static World read(String path) throws IOException {
+		return new World(readGrid(new File(path)));
+	}
+	
+	/**
+	 * Reads a map for a car of the given size in pixels, e.g. to match a run recorded
+	 * with the car's texture
+	 */
+	public static World read(String path, int carWidth, int carHeight) throws IOException {
+		return new World(readGrid(new File(path)), carWidth, carHeight);
+	}
+
+	static TileGridBuilder readGrid(File file) throws IOException {
+		return new TmxMapReader().parse(file);
+	}
+
+	private TileGridBuilder parse(File file) throws IOException {
+		Element map = load(file);
+		TileGridBuilder grid = new TileGridBuilder(intAttribute(map, "width"), intAttribute(map, "height"));
+
+		for(Element tileset : children(map, "tileset")){
+			int firstGid = intAttribute(tileset, "firstgid");
+			if(tileset.hasAttribute("source")){
+				tileset = load(new File(file.getAbsoluteFile().getParentFile(), tileset.getAttribute("source")));
+			}
+			readTileset(tileset, firstGid);
+		}
+
+		// The DOM isn't safe to read from several threads, so take what the layers need out of it first
+		final HashMap<String,LayerData> layers = new HashMap<String,LayerData>();
+		NodeList layerNodes = map.getElementsByTagName("layer");
+		for(int i = 0; i < layerNodes.getLength(); i++){
+			Element layer = (Element) layerNodes.item(i);
+			layers.put(layer.getAttribute("name"), new LayerData(layer));
+		}
+
+		// Decoding only reads its LayerData and tileProperties, so layers can decode in parallel
+		final TileGridBuilder builder = grid;
+		grid.decodeLayers(new TileGridBuilder.LayerDecoder(){
+			@Override
+			public void decode(TileGridBuilder.Layer layer) throws IOException {
+				LayerData data = layers.get(layer.getName());
+				if(data != null){
+					readLayer(builder, layer, data);
+				}
+			}
+		});
+		return grid;
+	}
+
+	private void readTileset(Element tileset, int firstGid){
+		for(Element tile : children(tileset, "tile")){
+			HashMap<String,Object> properties = new HashMap<String,Object>();
+			for(Element group : children(tile, "properties")){
+				for(Element property : children(group, "property")){
+					properties.put(property.getAttribute("name"), propertyValue(property));
+				}
+			}
+			if(!properties.isEmpty()){
+				tileProperties.put(firstGid + Integer.parseInt(tile.getAttribute("id")), properties);
+			}
+		}
+	}
+
+	private static Object propertyValue(Element property){
+		String value = property.hasAttribute("value") ? property.getAttribute("value") : property.getTextContent();
+		String type = property.getAttribute("type");
+		if(type.equals("bool")){
+			return Boolean.valueOf(value);
+		}
+		if(type.equals("int")){
+			return Integer.valueOf(value);
+		}
+		if(type.equals("float")){
+			return Float.valueOf(value);
+		}
+		return value;
+	}
+
+	/**
+	 * A layer's size and its data element, copied out of the DOM
+	 */
+	private static class LayerData {
+		private final int width;
+		private final int height;
+		private final boolean hasData;
+		private final String encoding;
+		private final String compression;
+		// The data's text, or for xml data the gid of each tile element
+		private final String text;
+		private final String[] tileGids;
+
+		private LayerData(Element layer) throws IOException {
+			width = intAttribute(layer, "width");
+			height = intAttribute(layer, "height");
+			ArrayList<Element> data = children(layer, "data");
+			hasData = !data.isEmpty();
+			if(!hasData){
+				encoding = compression = text = null;
+				tileGids = null;
+				return;
+			}
+			Element element = data.get(0);
+			if(!children(element, "chunk").isEmpty()){
+				throw new IOException("Infinite maps are not supported");
+			}
+			encoding = element.getAttribute("encoding");
+			compression = element.getAttribute("compression");
+			if(encoding.isEmpty()){
+				ArrayList<Element> tiles = children(element, "tile");
+				text = null;
+				tileGids = new String[tiles.size()];
+				for(int i = 0; i < tileGids.length; i++){
+					tileGids[i] = tiles.get(i).getAttribute("gid");
+				}
+			}
+			else{
+				text = element.getTextContent();
+				tileGids = null;
+			}
+		}
+	}
+
+	private void readLayer(TileGridBuilder grid, TileGridBuilder.Layer layer, LayerData data) throws IOException {
+		if(!data.hasData){
+			return;
+		}
+		int width = data.width;
+		int height = data.height;
+		int[] gids = readData(data, width * height);
+
+		int maxGid = 0;
+		for(int i = 0; i < gids.length; i++){
+			gids[i] &= ~FLIP_FLAGS;
+			maxGid = Math.max(maxGid, gids[i]);
+		}
+		// Each gid's tile is resolved the first time it's seen, not for every cell
+		MapTile[] gidTiles = new MapTile[maxGid + 1];
+		boolean[] gidStarts = new boolean[maxGid + 1];
+
+		for(int row = 0; row < height; row++){
+			// Rows count down from the top, the world's y counts up from the bottom
+			int y = height - 1 - row;
+			for(int x = 0; x < width; x++){
+				int gid = gids[x + row * width];
+				if(gid == 0){
+					continue;
+				}
+				if(gidTiles[gid] == null){
+					HashMap<String,Object> properties = tileProperties.get(gid);
+					String type = null;
+					boolean isExit = false;
+					if(properties != null){
+						Object typeValue = properties.get("type");
+						type = typeValue == null ? null : typeValue.toString();
+						isExit = properties.get("exit") != null;
+						Object start = properties.get("startLocation");
+						gidStarts[gid] = Boolean.TRUE.equals(start) || "true".equals(start);
+					}
+					try {
+						gidTiles[gid] = grid.tileFor(layer.getName(), type, isExit);
+					} catch (IllegalArgumentException e) {
+						throw new IOException(e.getMessage() + " in layer " + layer.getName(), e);
+					}
+				}
+				layer.set(x, y, gidTiles[gid]);
+				if(gidStarts[gid]){
+					layer.markStart(x, y);
+				}
+			}
+		}
+	}
+
+	private static int[] readData(LayerData data, int count) throws IOException {
+		int[] gids = new int[count];
+		String encoding = data.encoding;
+		if(encoding.equals("csv")){
+			String[] values = data.text.trim().split("\\s*,\\s*");
+			if(values.length != count){
+				throw new IOException("Expected " + count + " tiles in layer but found " + values.length);
+			}
+			for(int i = 0; i < count; i++){
+				gids[i] = (int) Long.parseLong(values[i]);
+			}
+		}
+		else if(encoding.equals("base64")){
+			byte[] bytes = Base64.getMimeDecoder().decode(data.text.trim());
+			InputStream in = new ByteArrayInputStream(bytes);
+			String compression = data.compression;
+			if(compression.equals("zlib")){
+				in = new InflaterInputStream(in);
+			}
+			else if(compression.equals("gzip")){
+				in = new GZIPInputStream(in);
+			}
+			else if(!compression.isEmpty()){
+				throw new IOException("Unsupported layer compression: " + compression);
+			}
+			DataInputStream stream = new DataInputStream(in);
+			try {
+				for(int i = 0; i < count; i++){
+					// Little endian
+					gids[i] = Integer.reverseBytes(stream.readInt());
+				}
+			} finally {
+				stream.close();
+			}
+		}
+		else if(encoding.isEmpty()){
+			for(int i = 0; i < count && i < data.tileGids.length; i++){
+				String gid = data.tileGids[i];
+				gids[i] = gid.isEmpty() ? 0 : (int) Long.parseLong(gid);
+			}
+		}
+		else{
+			throw new IOException("Unsupported layer encoding: " + encoding);
+		}
+		return gids;
+	}
+
+	private static Element load(File file) throws IOException {
+		try {
+			DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+			// Old maps name a DTD on mapeditor.org, which we never want to fetch
+			factory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
+			factory.setExpandEntityReferences(false);
+			DocumentBuilder builder = factory.newDocumentBuilder();
+			Document document = builder.parse(file);
+			return document.getDocumentElement();
+		} catch (ParserConfigurationException e) {
+			throw new IOException(e);
+		} catch (SAXException e) {
+			throw new IOException("Could not parse " + file, e);
+		}
+	}
+
+	private static ArrayList<Element> children(Element parent, String name){
+		ArrayList<Element> children = new ArrayList<Element>();
+		for(Node child = parent.getFirstChild(); child != null; child = child.getNextSibling()){
+			if(child.getNodeType() == Node.ELEMENT_NODE && child.getNodeName().equals(name)){
+				children.add((Element) child);
+			}
+		}
+		return children;
+	}
+
+	private static int intAttribute(Element element, String name) throws IOException {
+		try {
+			return Integer.parseInt(element.getAttribute(name));
+		} catch (NumberFormatException e) {
+			throw new IOException("Missing or invalid " + name + " on <" + element.getNodeName() + ">", e);
+		}
+	}
+}
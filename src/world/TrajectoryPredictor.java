@@ -0,0 +1,223 @@
+package world;
+
+import tiles.MapTile;
+
+/**
+ * Predicts where the car will be after a turn, the same way Car.peek always has, but on plain
+ * floats and without allocating. One call can evaluate a whole batch of candidate manoeuvres
+ * from the car's current state, and can record the full trajectory of one.
+ *
+ * The physics is a step by step copy of peek's, including its quirks: the number of steps
+ * comes from the car's rotation and the unconverted degree, the car always accelerates, and
+ * steps keep going after the first collision.
+ */
+public class TrajectoryPredictor {
+
+	private static final float ROTATING_FACTOR = 150f;
+	private static final float STEERING_ADJUST_FACTOR = 0.05f;
+	private static final float EPSILON = 0.01f;
+	private static final float TURN_EPSILON = 0.05f;
+	private static final float ACCELERATION = 2f;
+	private static final float FRICTION_FORCE = 0.5f;
+	private static final float MAX_SPEED = 5f;
+
+	// Candidates turning the same way reach the same rotations
+	private final RotationTrig trig = new RotationTrig();
+
+	private final Car car;
+	private final World world;
+
+	// The car's state at the start of the current prediction or batch
+	private float startX;
+	private float startY;
+	private float startAngle;
+	private float startRotation;
+	private boolean accelerating;
+	private boolean reversing;
+	private boolean forward;
+
+	/**
+	 * Where a predicted manoeuvre ends and whether it hits a wall on the way. Reusable, so
+	 * callers can keep their own and predict into them every tick.
+	 */
+	public static final class Prediction {
+		private float x;
+		private float y;
+		private int steps;
+		private int firstCollision;
+
+		/** The tile the car ends on */
+		public int getEndX(){
+			return Math.round(x);
+		}
+
+		public int getEndY(){
+			return Math.round(y);
+		}
+
+		/** The exact position the car ends at */
+		public float getX(){
+			return x;
+		}
+
+		public float getY(){
+			return y;
+		}
+
+		/** How many steps were simulated */
+		public int getSteps(){
+			return steps;
+		}
+
+		/** The first step that ended on a wall, or -1 if none did */
+		public int getFirstCollision(){
+			return firstCollision;
+		}
+
+		/** Whether no step ended on a wall, as peek's reachable */
+		public boolean isReachable(){
+			return firstCollision < 0;
+		}
+	}
+
+	TrajectoryPredictor(Car car, World world){
+		this.car = car;
+		this.world = world;
+	}
+
+	/**
+	 * Predicts driving with the given velocity while turning towards the degree, as Car.peek.
+	 * If trajectory isn't null it's filled with the x and y after each step, for as many
+	 * steps as fit.
+	 * @return result, filled in
+	 */
+	public Prediction predict(float velocityX, float velocityY, float degree, WorldSpatial.RelativeDirection turnDirection,
+			float delta, Prediction result, float[] trajectory){
+		snapshot();
+		simulate(velocityX, velocityY, degree, turnDirection, delta, result, trajectory);
+		return result;
+	}
+
+	/**
+	 * Predicts the first count candidates, each a velocity, degree and turn direction, from the
+	 * car's current state into the matching results.
+	 */
+	public void predictAll(int count, float[] velocityX, float[] velocityY, float[] degrees,
+			WorldSpatial.RelativeDirection[] turnDirections, float delta, Prediction[] results){
+		snapshot();
+		for(int i = 0; i < count; i++){
+			simulate(velocityX[i], velocityY[i], degrees[i], turnDirections[i], delta, results[i], null);
+		}
+	}
+
+	private void snapshot(){
+		startX = car.getX();
+		startY = car.getY();
+		startAngle = car.getTurnAngle();
+		startRotation = car.getRawRotation();
+		accelerating = car.isAccelerating();
+		reversing = car.isReversing();
+		forward = car.isMovingForward();
+	}
+
+	private void simulate(float velocityX, float velocityY, float degree, WorldSpatial.RelativeDirection turnDirection,
+			float delta, Prediction result, float[] trajectory){
+		boolean left = turnDirection.equals(WorldSpatial.RelativeDirection.LEFT);
+		boolean right = turnDirection.equals(WorldSpatial.RelativeDirection.RIGHT);
+		float angle = startAngle;
+		float rotation = startRotation;
+		float x = startX;
+		float y = startY;
+		float vx = velocityX;
+		float vy = velocityY;
+		boolean movingForward = forward;
+		int steps = Math.round(Math.abs(startRotation - degree) / (ROTATING_FACTOR * delta));
+		int firstCollision = -1;
+
+		// Going right are negative values while going left is positive
+		if(right && degree > 0){
+			degree = 0 - degree;
+		}
+		if(left && degree < 0){
+			degree = 360 - degree;
+		}
+
+		for(int i = 0; i < steps; i++){
+			if((rotation < degree && left) || (rotation > degree && right)){
+				angle += right ? -ROTATING_FACTOR * delta : ROTATING_FACTOR * delta;
+				if(reversing){
+					angle *= -1;
+				}
+			}
+
+			if(length(vx, vy) > EPSILON){
+				rotation += angle;
+				// As peek, this is true unless the angle is exactly TURN_EPSILON
+				if(angle > TURN_EPSILON || angle < TURN_EPSILON){
+					int sign = angle > 0 ? 1 : -1;
+					float magnitude = Math.abs(angle) - Math.abs(angle) * STEERING_ADJUST_FACTOR;
+					angle = magnitude * sign;
+				}
+				else{
+					angle = 0;
+				}
+			}
+
+			// Engine and friction together, as the car always accelerates
+			trig.set(rotation);
+			float accelerationX = trig.cos * ACCELERATION + trig.drivingFrictionCos * FRICTION_FORCE;
+			float accelerationY = trig.sin * ACCELERATION + trig.drivingFrictionSin * FRICTION_FORCE;
+
+			// The velocity turns to the car's rotation, keeping its speed
+			float speed = length(vx, vy);
+			vx = speed * trig.cos;
+			vy = speed * trig.sin;
+			if((!movingForward && accelerating) || (movingForward && reversing)){
+				vx -= accelerationX * delta;
+				vy -= accelerationY * delta;
+			}
+			else{
+				vx += accelerationX * delta;
+				vy += accelerationY * delta;
+			}
+
+			speed = length(vx, vy);
+			if(speed > MAX_SPEED){
+				float scalar = speed / MAX_SPEED;
+				vx *= 1 / scalar;
+				vy *= 1 / scalar;
+			}
+			else if(speed < EPSILON){
+				vx = 0;
+				vy = 0;
+				movingForward = !movingForward;
+			}
+
+			if(!movingForward){
+				float rotatedX = vx * RotationTrig.COS_180 - vy * RotationTrig.SIN_180;
+				vy = vx * RotationTrig.SIN_180 + vy * RotationTrig.COS_180;
+				vx = rotatedX;
+			}
+
+			x += vx * delta;
+			y += vy * delta;
+			if(firstCollision < 0 && world.lookUp(x, y).getType() == MapTile.TYPE_WALL){
+				firstCollision = i;
+			}
+			if(trajectory != null && 2 * i + 1 < trajectory.length){
+				trajectory[2 * i] = x;
+				trajectory[2 * i + 1] = y;
+			}
+			angle = 0;
+		}
+
+		result.x = x;
+		result.y = y;
+		result.steps = steps;
+		result.firstCollision = firstCollision;
+	}
+
+	private static float length(float x, float y){
+		return (float) Math.sqrt(x * x + y * y);
+	}
+}
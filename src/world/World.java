@@ -1,11 +1,11 @@
 package world;
 
-import java.util.HashMap;
-
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.Batch;
 import com.badlogic.gdx.graphics.g2d.Sprite;
+import com.badlogic.gdx.maps.MapProperties;
 import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.maps.tiled.TiledMapTile;
 import com.badlogic.gdx.maps.tiled.TiledMapTileLayer;
 import com.badlogic.gdx.maps.tiled.TiledMapTileLayer.Cell;
 
@@ -13,10 +13,15 @@ import controller.AIController;
 import controller.CarController;
 import controller.ManualController;
 import mycontroller.MyAIController;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+
 import tiles.MapTile;
-import tiles.TrapTile;
-import tiles.UtilityTile;
 import utilities.Coordinate;
+import utilities.TileRingBuffer;
 /**
  * This class provides functionality for use within the simulation system. It is NOT intended to be
  * read or understood for SWEN30006 Part C. Comments have been intentionally removed to reinforce
@@ -33,35 +38,51 @@ public class World {
 	private Car car;
 	
 	// Car's controller
-	private static CarController controller;
+	private CarController controller;
+	
+	private TiledMap map;
+	
+	private RunRecorder recorder;
+	
+	// Longest physics step, longer updates are split so the car can't skip over a tile
+	public static final float DEFAULT_MAX_STEP = 1 / 30f;
+	private float maxStep = DEFAULT_MAX_STEP;
+	// The controller decides every this many steps, the car repeats its inputs in between
+	private int decisionInterval = 1;
+	private int stepsUntilDecision = 0;
 	
-	private static TiledMap map;
+	// Simulated seconds stepped so far, independent of how fast the steps ran
+	private double simTime = 0;
+	
+	// Tiles the car has entered that the controller hasn't been told about yet
+	private final TileRingBuffer enteredTiles = new TileRingBuffer(16);
+	private int lastTileX;
+	private int lastTileY;
 	
 
 	
-	public static int MAP_PIXEL_SIZE = 32;
-	public static int MAP_HEIGHT;
-	public static int MAP_WIDTH;
+	public static final int MAP_PIXEL_SIZE = 32;
+	private int mapHeight;
+	private int mapWidth;
+	
+	// Size of the car sprite in pixels, for worlds that never load its texture
+	static final int CAR_PIXEL_SIZE = 16;
+	
+	// Dense row-major grid indexed by x + y*mapWidth, y in world (not layer-reversed) space
+	private MapTile[] mapTiles;
 	
-	private static String[] LAYER_NAME = {"Road","Utility","Trap","Wall"};
+	private List<Coordinate> exits;
 	
-	private static HashMap<Coordinate,MapTile> mapTiles = new HashMap<Coordinate,MapTile>();
+	// Shared tile returned for every cell that is off the map or on no layer
+	private static final MapTile EMPTY_TILE = new MapTile("Empty");
 	
 	public World(TiledMap map){
-		World.map = map;
+		this.map = map;
 		
 		TiledMapTileLayer roadLayer = (TiledMapTileLayer) getMap().getLayers().get("Road");
-		MAP_HEIGHT = roadLayer.getHeight();
-		MAP_WIDTH = roadLayer.getWidth();
-		
-		initializeMap(map);
-		
-
-		
-		car = new Car(new Sprite(new Texture("sprites/car2.png")));
-		// Set car size relative to the map scaling.
-		car.setSize(car.getWidth()*(1/32f), car.getHeight()*(1/32f));
-		car.setOriginCenter();
+		TileGridBuilder grid = new TileGridBuilder(roadLayer.getWidth(), roadLayer.getHeight());
+		initializeMap(map, grid);
+		initializeWorld(grid, new Sprite(new Texture("sprites/car2.png")));
 		System.out.println(map.getLayers().get("Wall"));
 		
 		// Add the car controller
@@ -70,82 +91,219 @@ public class World {
 		controller = new MyAIController(car);
 	}
 	
-	private void initializeMap(TiledMap map2) {
-		// Iterate through all layer names
-		for(String layerName : LAYER_NAME){
-			// Set the layer
-			TiledMapTileLayer layer = (TiledMapTileLayer) getMap().getLayers().get(layerName);
-			
-			// Iterate through the layers and input them into the hashtable
-			System.out.println(layerName+" width: "+layer.getWidth()+" height: "+layer.getHeight());
-			for(int x = 0; x < layer.getWidth(); x++){
-				for(int y = 0; y < layer.getHeight(); y++){
-					Cell cell = layer.getCell(x, y);
-					if(cell != null){
-						
-						int reverseYAxis = layer.getHeight() -y;
-						MapTile newTile = null; // Only stays null if exception/exit
-						
-						if(layerName.equals("Trap")){
-							String className = MapTile.tileNameSpace + (String) cell.getTile().getProperties().get("type");
-							try {
-								newTile = (TrapTile) Class.forName( className ).newInstance();
-							} catch (Exception e) {
-								e.printStackTrace();
-								System.exit(1);
-							}
-						}
-						else if(layerName.equals("Utility")){
-							UtilityTile.Type type = UtilityTile.Type.START;
-							if(cell.getTile().getProperties().get("exit") != null){
-								type = UtilityTile.Type.EXIT;
-							}
-							newTile = new UtilityTile(layerName,type);
-						}
-						else{
-							newTile = new MapTile(layerName);
-						}
-						mapTiles.put(new Coordinate(x, reverseYAxis), newTile);
-					}
+	/**
+	 * Creates a world with no rendering resources and no controller, for running
+	 * simulations headless. Set a controller before updating it.
+	 */
+	World(TileGridBuilder grid){
+		this(grid, CAR_PIXEL_SIZE, CAR_PIXEL_SIZE);
+	}
+	
+	World(TileGridBuilder grid, int carWidth, int carHeight){
+		Sprite sprite = new Sprite();
+		sprite.setSize(carWidth, carHeight);
+		initializeWorld(grid, sprite);
+		controller = null;
+	}
+	
+	private void initializeWorld(TileGridBuilder grid, Sprite carSprite){
+		mapHeight = grid.getHeight();
+		mapWidth = grid.getWidth();
+		mapTiles = grid.getTiles();
+		exits = Collections.unmodifiableList(grid.getExits());
+		
+		car = new Car(this, carSprite, grid.getStart());
+		// Set car size relative to the map scaling.
+		car.setSize(car.getWidth()*(1/32f), car.getHeight()*(1/32f));
+		car.setOriginCenter();
+		lastTileX = car.getTileX();
+		lastTileY = car.getTileY();
+	}
+	
+	private void initializeMap(TiledMap map2, final TileGridBuilder grid) {
+		// Layers decode into their own cells in parallel, then merge so later layers take precedence
+		try {
+			grid.decodeLayers(new TileGridBuilder.LayerDecoder(){
+				@Override
+				public void decode(TileGridBuilder.Layer layer){
+					decodeLayer(grid, layer);
+				}
+			});
+		} catch (IOException e) {
+			// Only reading files can fail, and the map is already loaded
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	private void decodeLayer(TileGridBuilder grid, TileGridBuilder.Layer layer){
+		TiledMapTileLayer tileLayer = (TiledMapTileLayer) getMap().getLayers().get(layer.getName());
+		System.out.println(layer.getName()+" width: "+tileLayer.getWidth()+" height: "+tileLayer.getHeight());
+		
+		// Each map tile's grid tile is resolved the first time it's seen, not for every cell
+		IdentityHashMap<TiledMapTile,MapTile> resolved = new IdentityHashMap<TiledMapTile,MapTile>();
+		for(int y = 0; y < tileLayer.getHeight(); y++){
+			for(int x = 0; x < tileLayer.getWidth(); x++){
+				Cell cell = tileLayer.getCell(x, y);
+				if(cell == null){
+					continue;
+				}
+				TiledMapTile tile = cell.getTile();
+				MapTile mapTile = resolved.get(tile);
+				MapProperties properties = tile.getProperties();
+				if(mapTile == null){
+					mapTile = grid.tileFor(layer.getName(), (String) properties.get("type"), properties.get("exit") != null);
+					resolved.put(tile, mapTile);
+				}
+				layer.set(x, y, mapTile);
+				Object startLocation = properties.get("startLocation");
+				if(startLocation != null && (Boolean) startLocation){
+					layer.markStart(x, y);
 				}
 			}
 		}
 	}
 
 	public void update(float delta){
-		controller.update(delta);
+		int steps = Math.max(1, (int) Math.ceil(delta / maxStep));
+		float step = delta / steps;
+		for(int i = 0; i < steps && car.getStatus() == Car.Status.DRIVING; i++){
+			updateStep(step);
+		}
+	}
+	
+	private void updateStep(float delta){
+		simTime += delta;
+		if(recorder != null){
+			recorder.beginTick(delta);
+		}
+		if(controller != null){
+			if(stepsUntilDecision == 0){
+				while(!enteredTiles.isEmpty()){
+					controller.tileEntered(enteredTiles.headX(), enteredTiles.headY());
+					enteredTiles.removeHead();
+				}
+				if(decisionInterval > 1){
+					car.holdInputs(true);
+					controller.update(delta);
+					car.holdInputs(false);
+				}
+				else{
+					controller.update(delta);
+				}
+				stepsUntilDecision = decisionInterval;
+			}
+			else{
+				car.repeatHeldInputs(delta);
+			}
+			stepsUntilDecision--;
+		}
         
         // Update the car
         car.update(delta);
+        queueEnteredTiles();
+	}
+	
+	private void queueEnteredTiles(){
+		int tileX = car.getTileX();
+		int tileY = car.getTileY();
+		if(controller == null){
+			lastTileX = tileX;
+			lastTileY = tileY;
+			return;
+		}
+		// One tile at a time, so every tile crossed is reported even after a big step
+		while(lastTileX != tileX){
+			lastTileX += tileX > lastTileX ? 1 : -1;
+			enteredTiles.add(lastTileX, lastTileY);
+		}
+		while(lastTileY != tileY){
+			lastTileY += tileY > lastTileY ? 1 : -1;
+			enteredTiles.add(lastTileX, lastTileY);
+		}
+	}
+	
+	/**
+	 * Sets the longest physics step, and how many steps each controller decision lasts for
+	 */
+	public void setSubStepping(float maxStep, int decisionInterval){
+		if(!(maxStep > 0) || decisionInterval < 1){
+			throw new IllegalArgumentException("Invalid sub-stepping: " + maxStep + ", " + decisionInterval);
+		}
+		this.maxStep = maxStep;
+		this.decisionInterval = decisionInterval;
+		this.stepsUntilDecision = 0;
+	}
+	
+	/**
+	 * Simulated seconds since the world was created
+	 */
+	public double getSimTime(){
+		return simTime;
+	}
+	
+	public float getMaxStep(){
+		return maxStep;
+	}
+	
+	public int getDecisionInterval(){
+		return decisionInterval;
 	}
 	
 	public void render(Batch batch){
 		car.draw(batch);
 	}
 	
-	public static TiledMap getMap(){
+	public TiledMap getMap(){
 		return map;
 	}
 	
-	public static MapTile lookUp(double futureX, double futureY){
-		
-		
-		
-		// Convert Y coordinate
-		int x = (int) Math.round(futureX);
-		int y =  MAP_HEIGHT - (int) Math.round(futureY);
-		
-		if(mapTiles.containsKey(new Coordinate(x,y))){
-			return mapTiles.get(new Coordinate(x,y));
-		}
-		else{
-			return new MapTile("Empty");
+	public int getWidth(){
+		return mapWidth;
+	}
+	
+	public int getHeight(){
+		return mapHeight;
+	}
+	
+	/**
+	 * Every exit tile on the map
+	 */
+	public List<Coordinate> getExits(){
+		return exits;
+	}
+	
+	public MapTile lookUp(double futureX, double futureY){
+		return lookUp((int) Math.round(futureX), (int) Math.round(futureY));
+	}
+	
+	public MapTile lookUp(int x, int y){
+		if(x < 0 || y < 0 || x >= mapWidth || y >= mapHeight){
+			return EMPTY_TILE;
 		}
-		
+		MapTile tile = mapTiles[x + y * mapWidth];
+		return tile != null ? tile : EMPTY_TILE;
 	}
 	
 	
 	public Car getCar(){
 		return this.car;
 	}
+	
+	public CarController getController(){
+		return controller;
+	}
+	
+	public void setController(CarController controller){
+		this.controller = controller;
+		enteredTiles.clear();
+		stepsUntilDecision = 0;
+	}
+	
+	/**
+	 * Logs every tick from now on to the recorder, or stops logging if it's null
+	 */
+	public void setRecorder(RunRecorder recorder){
+		this.recorder = recorder;
+		car.setRecorder(recorder);
+	}
 }
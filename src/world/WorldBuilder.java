@@ -0,0 +1,186 @@
+package world;
+
+import tiles.MapTile;
+import utilities.Coordinate;
+
+/**
+ * Builds worlds in memory, from rows of characters or tile by tile, without a map file or
+ * libGDX. Worlds come without a controller, as from TmxMapReader. A builder can build any
+ * number of worlds, and changing it afterwards doesn't change worlds already built.
+ *
+ * Rows are given top first, as a map is drawn, using:
+ * <pre>
+ *   #  wall       .  road      S  start     E  exit
+ *   L  lava trap  M  mud trap  G  grass trap
+ *   space or anything else is off the map
+ * </pre>
+ */
+public class WorldBuilder {
+
+	private final TileGridBuilder grid;
+	private int carWidth = World.CAR_PIXEL_SIZE;
+	private int carHeight = World.CAR_PIXEL_SIZE;
+
+	/**
+	 * A builder for a width by height world that is all road
+	 */
+	public WorldBuilder(int width, int height){
+		if(width < 1 || height < 1){
+			throw new IllegalArgumentException("Invalid world size: " + width + "x" + height);
+		}
+		grid = new TileGridBuilder(width, height);
+		fill(0, 0, width, height, MapTile.TYPE_ROAD);
+	}
+
+	private WorldBuilder(TileGridBuilder grid){
+		this.grid = grid;
+	}
+
+	/**
+	 * A builder for the world drawn by the rows, top row first. Rows may differ in length,
+	 * the world is as wide as the longest.
+	 */
+	public static WorldBuilder fromRows(String... rows){
+		int width = 0;
+		for(String row : rows){
+			width = Math.max(width, row.length());
+		}
+		if(width == 0){
+			throw new IllegalArgumentException("No rows to build a world from");
+		}
+		WorldBuilder builder = new WorldBuilder(new TileGridBuilder(width, rows.length));
+		for(int row = 0; row < rows.length; row++){
+			int y = rows.length - 1 - row;
+			for(int x = 0; x < rows[row].length(); x++){
+				builder.symbol(x, y, rows[row].charAt(x));
+			}
+		}
+		return builder;
+	}
+
+	private void symbol(int x, int y, char symbol){
+		switch(symbol){
+		case '#':
+			wall(x, y);
+			break;
+		case '.':
+			road(x, y);
+			break;
+		case 'S':
+			start(x, y);
+			break;
+		case 'E':
+			exit(x, y);
+			break;
+		case 'L':
+			trap(x, y, "LavaTrap");
+			break;
+		case 'M':
+			trap(x, y, "MudTrap");
+			break;
+		case 'G':
+			trap(x, y, "GrassTrap");
+			break;
+		default:
+			set(x, y, MapTile.TYPE_EMPTY, null);
+			break;
+		}
+	}
+
+	public WorldBuilder road(int x, int y){
+		return set(x, y, MapTile.TYPE_ROAD, null);
+	}
+
+	public WorldBuilder wall(int x, int y){
+		return set(x, y, MapTile.TYPE_WALL, null);
+	}
+
+	public WorldBuilder exit(int x, int y){
+		return set(x, y, MapTile.TYPE_EXIT, null);
+	}
+
+	/**
+	 * Makes the tile a start tile and the car's start location, there is only one
+	 */
+	public WorldBuilder start(int x, int y){
+		Coordinate previous = grid.getStart();
+		if(previous != null){
+			road(previous.x, previous.y);
+		}
+		set(x, y, MapTile.TYPE_START, null);
+		grid.setStart(x, y);
+		return this;
+	}
+
+	/**
+	 * Places a trap of a type registered with TrapRegistry, e.g. "LavaTrap"
+	 */
+	public WorldBuilder trap(int x, int y, String trapType){
+		// Any trap code will do, the registry decides which trap the type is
+		return set(x, y, MapTile.TYPE_TRAP, trapType);
+	}
+
+	/**
+	 * Makes a rectangle of tiles walls, e.g. to surround the world
+	 */
+	public WorldBuilder walls(int x, int y, int width, int height){
+		return fill(x, y, width, height, MapTile.TYPE_WALL);
+	}
+
+	/**
+	 * Walls along every edge of the world
+	 */
+	public WorldBuilder border(){
+		int width = grid.getWidth();
+		int height = grid.getHeight();
+		walls(0, 0, width, 1);
+		walls(0, height - 1, width, 1);
+		walls(0, 0, 1, height);
+		return walls(width - 1, 0, 1, height);
+	}
+
+	/**
+	 * Sets the car's size in pixels, which decides when it hits walls
+	 */
+	public WorldBuilder carSize(int carWidth, int carHeight){
+		if(carWidth < 1 || carHeight < 1){
+			throw new IllegalArgumentException("Invalid car size: " + carWidth + "x" + carHeight);
+		}
+		this.carWidth = carWidth;
+		this.carHeight = carHeight;
+		return this;
+	}
+
+	/**
+	 * Builds a new world as the builder stands
+	 * @throws IllegalStateException if there's no start location
+	 */
+	public World build(){
+		if(grid.getStart() == null){
+			throw new IllegalStateException("The world has no start location");
+		}
+		return new World(grid.copy(), carWidth, carHeight);
+	}
+
+	private WorldBuilder fill(int x, int y, int width, int height, byte type){
+		for(int j = y; j < y + height; j++){
+			for(int i = x; i < x + width; i++){
+				set(i, j, type, null);
+			}
+		}
+		return this;
+	}
+
+	private WorldBuilder set(int x, int y, byte type, String trapType){
+		if(x < 0 || y < 0 || x >= grid.getWidth() || y >= grid.getHeight()){
+			throw new IndexOutOfBoundsException("(" + x + "," + y + ") is off the " + grid.getWidth() + "x" + grid.getHeight() + " world");
+		}
+		grid.getTiles()[x + y * grid.getWidth()] = grid.tile(type, trapType);
+		// Covering the start location leaves the world without one
+		Coordinate start = grid.getStart();
+		if(start != null && start.x == x && start.y == y && type != MapTile.TYPE_START){
+			grid.setStart(-1, -1);
+		}
+		return this;
+	}
+}
@@ -0,0 +1,124 @@
+/*
+ * SWEN30006 Project Part C
+ * Group 109: Matt Perrott, Tobias Edwards, Kinsey Reeves
+ */
+package mycontroller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.junit.Test;
+
+import tiles.MapTile;
+import utilities.Coordinate;
+
+/**
+ * Checks the exit paths planned over fully known maps against a
+ * reference Dijkstra search.
+ */
+public class ExitPlanningTest {
+
+	/** How many random maps to plan over. */
+	private static final int MAPS = 500;
+
+	@Test
+	public void plansAreCheapestOnRandomKnownMaps() {
+		Random random = new Random(8);
+		for (int trial = 0; trial < MAPS; trial++) {
+			int width = 2 + random.nextInt(30);
+			int height = 2 + random.nextInt(30);
+			Coordinate start = new Coordinate(random.nextInt(width),
+											  random.nextInt(height));
+			Coordinate goal = new Coordinate(random.nextInt(width),
+											 random.nextInt(height));
+			if (start.equals(goal)) {
+				continue;
+			}
+			MapTile[][] grid = RandomMaps.grid(random, width, height,
+											   start, goal);
+			AIMap map = new AIMap();
+			for (int x = 0; x < width; x++) {
+				for (int y = 0; y < height; y++) {
+					map.visit(x, y, grid[x][y]);
+				}
+			}
+			TileCosts costs = RandomMaps.costs(random);
+
+			int expected = RandomMaps.dijkstra(map, costs, start, goal);
+			IncrementalPlanner planner =
+					new IncrementalPlanner(map, goal, costs);
+			ArrayList<Coordinate> path = planner.plan(start);
+
+			String context = "map " + trial;
+			if (expected == RandomMaps.UNREACHABLE) {
+				assertNull(context, path);
+				continue;
+			}
+			assertNotNull(context, path);
+			assertValidPath(context, map, costs, path, start, goal);
+			assertEquals(context, expected, planner.remainingCost(path, 0));
+			assertEquals(context, expected, planner.lastCost());
+		}
+	}
+
+	@Test
+	public void factoryPlansOnlyWhenTheExitIsReachable() {
+		Random random = new Random(9);
+		for (int trial = 0; trial < 100; trial++) {
+			int width = 2 + random.nextInt(20);
+			int height = 2 + random.nextInt(20);
+			Coordinate start = new Coordinate(random.nextInt(width),
+											  random.nextInt(height));
+			Coordinate goal = new Coordinate(random.nextInt(width),
+											 random.nextInt(height));
+			if (start.equals(goal)) {
+				continue;
+			}
+			MapTile[][] grid = RandomMaps.grid(random, width, height,
+											   start, goal);
+			AIMap map = new AIMap();
+			for (int x = 0; x < width; x++) {
+				for (int y = 0; y < height; y++) {
+					map.visit(x, y, grid[x][y]);
+				}
+			}
+
+			int expected = RandomMaps.dijkstra(map, new TileCosts(),
+											   start, goal);
+			ExiterStrategy strategy = ExiterStrategyFactory.getInstance()
+					.getExiterStrategy(start, map);
+			String context = "map " + trial;
+			if (expected == RandomMaps.UNREACHABLE) {
+				assertNull(context, strategy);
+			} else {
+				assertNotNull(context, strategy);
+			}
+		}
+	}
+
+	/**
+	 * Asserts that a path runs from start to goal in steps between
+	 * neighbouring tiles that can be driven onto.
+	 */
+	static void assertValidPath(String context, AIMap map, TileCosts costs,
+								ArrayList<Coordinate> path,
+								Coordinate start, Coordinate goal) {
+		assertEquals(context, start, path.get(0));
+		assertEquals(context, goal, path.get(path.size() - 1));
+		for (int i = 1; i < path.size(); i++) {
+			Coordinate from = path.get(i - 1);
+			Coordinate to = path.get(i);
+			assertEquals(context, 1,
+						 Math.abs(from.x - to.x) + Math.abs(from.y - to.y));
+			if (costs.stepCost(map.flagsAt(to.x, to.y)) ==
+					TileCosts.IMPASSABLE) {
+				throw new AssertionError(context + ": " + to +
+										 " can't be driven onto");
+			}
+		}
+	}
+}
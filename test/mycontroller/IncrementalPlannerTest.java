@@ -0,0 +1,96 @@
+/*
+ * SWEN30006 Project Part C
+ * Group 109: Matt Perrott, Tobias Edwards, Kinsey Reeves
+ */
+package mycontroller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Random;
+
+import org.junit.Test;
+
+import tiles.MapTile;
+import utilities.Coordinate;
+
+/**
+ * Checks that the plans D* Lite repairs as tiles are revealed and the
+ * car moves are as cheap as plans made from scratch by A*.
+ */
+public class IncrementalPlannerTest {
+
+	/** How many random maps to reveal. */
+	private static final int MAPS = 200;
+
+	@Test
+	public void repairedPlansMatchPlansFromScratch() {
+		Random random = new Random(10);
+		for (int trial = 0; trial < MAPS; trial++) {
+			int width = 2 + random.nextInt(40);
+			int height = 2 + random.nextInt(40);
+			Coordinate start = new Coordinate(random.nextInt(width),
+											  random.nextInt(height));
+			Coordinate goal = new Coordinate(random.nextInt(width),
+											 random.nextInt(height));
+			if (start.equals(goal)) {
+				continue;
+			}
+			MapTile[][] grid = RandomMaps.grid(random, width, height,
+											   start, goal);
+			TileCosts costs = RandomMaps.costs(random);
+
+			// The goal and the car's tile are known from the outset, the
+			// rest of the map is revealed in random batches, in an order
+			// that often reaches beyond the planner's search grid
+			AIMap map = new AIMap();
+			map.visit(goal.x, goal.y, grid[goal.x][goal.y]);
+			map.visit(start.x, start.y, grid[start.x][start.y]);
+			ArrayList<Coordinate> hidden = new ArrayList<Coordinate>();
+			for (int x = 0; x < width; x++) {
+				for (int y = 0; y < height; y++) {
+					hidden.add(new Coordinate(x, y));
+				}
+			}
+			Collections.shuffle(hidden, random);
+
+			IncrementalPlanner planner =
+					new IncrementalPlanner(map, goal, costs);
+			Coordinate car = start;
+			int revealed = 0;
+			int step = 0;
+			while (true) {
+				String context = "map " + trial + ", step " + step++;
+				int expected = RandomMaps.aStar(map, costs, car, goal);
+				ArrayList<Coordinate> path = planner.plan(car);
+				if (expected == RandomMaps.UNREACHABLE) {
+					assertNull(context, path);
+				} else {
+					ExitPlanningTest.assertValidPath(context, map, costs,
+													 path, car, goal);
+					assertEquals(context, expected,
+								 planner.remainingCost(path, 0));
+					assertEquals(context, expected, planner.lastCost());
+
+					// Drive a few tiles along the plan before replanning
+					int moves = Math.min(random.nextInt(3), path.size() - 2);
+					if (moves > 0) {
+						car = path.get(moves);
+					}
+				}
+
+				if (revealed == hidden.size()) {
+					break;
+				}
+				int batch = 1 + random.nextInt(20);
+				for (int i = 0; i < batch && revealed < hidden.size(); i++) {
+					Coordinate tile = hidden.get(revealed++);
+					map.visit(tile.x, tile.y, grid[tile.x][tile.y]);
+				}
+			}
+			planner.detach();
+		}
+	}
+}
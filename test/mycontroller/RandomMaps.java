@@ -0,0 +1,218 @@
+/*
+ * SWEN30006 Project Part C
+ * Group 109: Matt Perrott, Tobias Edwards, Kinsey Reeves
+ */
+package mycontroller;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import tiles.GrassTrap;
+import tiles.LavaTrap;
+import tiles.MapTile;
+import tiles.MudTrap;
+import tiles.UtilityTile;
+import utilities.Coordinate;
+
+/**
+ * Random grids of roads, walls and traps for the planner tests, and
+ * plain Dijkstra and A* searches over an AIMap to check plans against.
+ */
+final class RandomMaps {
+
+	/** The tiles a grid is made of, drawn from at random. */
+	static final MapTile ROAD = new MapTile("Road");
+	static final MapTile WALL = new MapTile("Wall");
+	static final MapTile EXIT =
+			new UtilityTile("Utility", UtilityTile.Type.EXIT);
+	static final MapTile[] TRAPS = {
+		new LavaTrap(), new MudTrap(), new GrassTrap(), new MapTile("Trap")
+	};
+
+	/** Returned by the searches when the goal can't be reached. */
+	static final int UNREACHABLE = Integer.MAX_VALUE;
+
+	private RandomMaps() {
+	}
+
+	/**
+	 * Returns a random grid, indexed [x][y], with its goal (an exit)
+	 * at goal and a road at start.
+	 *
+	 * @param random the source of randomness
+	 * @param width width of the grid
+	 * @param height height of the grid
+	 * @param start the tile the car starts on
+	 * @param goal the tile of the exit
+	 * @return the grid
+	 */
+	static MapTile[][] grid(Random random, int width, int height,
+							Coordinate start, Coordinate goal) {
+		MapTile[][] grid = new MapTile[width][height];
+		for (int x = 0; x < width; x++) {
+			for (int y = 0; y < height; y++) {
+				double draw = random.nextDouble();
+				if (draw < 0.25) {
+					grid[x][y] = WALL;
+				} else if (draw < 0.45) {
+					grid[x][y] = TRAPS[random.nextInt(TRAPS.length)];
+				} else {
+					grid[x][y] = ROAD;
+				}
+			}
+		}
+		grid[start.x][start.y] = ROAD;
+		grid[goal.x][goal.y] = EXIT;
+		return grid;
+	}
+
+	/**
+	 * Returns random trap costs, between 1 and 60.
+	 *
+	 * @param random the source of randomness
+	 * @return the costs
+	 */
+	static TileCosts costs(Random random) {
+		return new TileCosts(1 + random.nextInt(60), 1 + random.nextInt(60),
+							 1 + random.nextInt(60), 1 + random.nextInt(60));
+	}
+
+	/**
+	 * Returns the cost of the cheapest path from start to goal over the
+	 * map's known tiles, where each step costs what the tile stepped
+	 * onto does.
+	 *
+	 * @param map the map to search
+	 * @param costs the costs of each kind of tile
+	 * @param start the tile to start from
+	 * @param goal the tile to reach
+	 * @return the cost of the cheapest path, UNREACHABLE if there is none
+	 */
+	static int dijkstra(AIMap map, TileCosts costs,
+						Coordinate start, Coordinate goal) {
+		if (!map.isKnown(start.x, start.y)) {
+			return UNREACHABLE;
+		}
+		int minX = map.getMinKnownX();
+		int minY = map.getMinKnownY();
+		int width = map.getMaxKnownX() - minX + 1;
+		int height = map.getMaxKnownY() - minY + 1;
+
+		int[] best = new int[width * height];
+		Arrays.fill(best, UNREACHABLE);
+		// Entries are a cost in the high half and an index in the low
+		PriorityQueue<Long> queue = new PriorityQueue<Long>();
+		int first = (start.x - minX) * height + (start.y - minY);
+		best[first] = 0;
+		queue.add((long) first);
+
+		int[] dx = {0, 1, 0, -1};
+		int[] dy = {1, 0, -1, 0};
+		while (!queue.isEmpty()) {
+			long entry = queue.poll();
+			int cost = (int) (entry >>> 32);
+			int index = (int) entry;
+			if (cost > best[index]) {
+				continue;
+			}
+			int x = minX + index / height;
+			int y = minY + index % height;
+			if (x == goal.x && y == goal.y) {
+				return cost;
+			}
+			for (int i = 0; i < dx.length; i++) {
+				int nx = x + dx[i];
+				int ny = y + dy[i];
+				if (nx < minX || ny < minY ||
+					nx >= minX + width || ny >= minY + height) {
+					continue;
+				}
+				int step = costs.stepCost(map.flagsAt(nx, ny));
+				if (step == TileCosts.IMPASSABLE) {
+					continue;
+				}
+				int next = (nx - minX) * height + (ny - minY);
+				if (cost + step < best[next]) {
+					best[next] = cost + step;
+					queue.add((long) (cost + step) << 32 | next);
+				}
+			}
+		}
+		return UNREACHABLE;
+	}
+
+	/**
+	 * Returns the cost of the cheapest path from start to goal over the
+	 * map's known tiles, found by an A* search from scratch with a
+	 * Manhattan distance heuristic.
+	 *
+	 * @param map the map to search
+	 * @param costs the costs of each kind of tile
+	 * @param start the tile to start from
+	 * @param goal the tile to reach
+	 * @return the cost of the cheapest path, UNREACHABLE if there is none
+	 */
+	static int aStar(AIMap map, TileCosts costs,
+					 Coordinate start, Coordinate goal) {
+		if (!map.isKnown(start.x, start.y)) {
+			return UNREACHABLE;
+		}
+		int minX = map.getMinKnownX();
+		int minY = map.getMinKnownY();
+		int width = map.getMaxKnownX() - minX + 1;
+		int height = map.getMaxKnownY() - minY + 1;
+
+		int[] best = new int[width * height];
+		Arrays.fill(best, UNREACHABLE);
+		// Entries are an estimated total in the high half and an index
+		// in the low
+		PriorityQueue<Long> queue = new PriorityQueue<Long>();
+		int first = (start.x - minX) * height + (start.y - minY);
+		best[first] = 0;
+		queue.add((long) manhattan(start.x, start.y, goal) << 32 | first);
+
+		int[] dx = {0, 1, 0, -1};
+		int[] dy = {1, 0, -1, 0};
+		while (!queue.isEmpty()) {
+			long entry = queue.poll();
+			int index = (int) entry;
+			int x = minX + index / height;
+			int y = minY + index % height;
+			int cost = best[index];
+			if ((int) (entry >>> 32) > cost + manhattan(x, y, goal)) {
+				continue;
+			}
+			if (x == goal.x && y == goal.y) {
+				return cost;
+			}
+			for (int i = 0; i < dx.length; i++) {
+				int nx = x + dx[i];
+				int ny = y + dy[i];
+				if (nx < minX || ny < minY ||
+					nx >= minX + width || ny >= minY + height) {
+					continue;
+				}
+				int step = costs.stepCost(map.flagsAt(nx, ny));
+				if (step == TileCosts.IMPASSABLE) {
+					continue;
+				}
+				int next = (nx - minX) * height + (ny - minY);
+				if (cost + step < best[next]) {
+					best[next] = cost + step;
+					long estimate = cost + step + manhattan(nx, ny, goal);
+					queue.add(estimate << 32 | next);
+				}
+			}
+		}
+		return UNREACHABLE;
+	}
+
+	/**
+	 * Returns the Manhattan distance between a tile and the goal, which
+	 * never overestimates as every step costs at least 1.
+	 */
+	private static int manhattan(int x, int y, Coordinate goal) {
+		return Math.abs(x - goal.x) + Math.abs(y - goal.y);
+	}
+}
@@ -0,0 +1,65 @@
+package utilities;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import java.util.Objects;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class CoordinateTest {
+
+	private static final int[] EDGES = {0, 1, -1, 127, 128, -128, Integer.MAX_VALUE, Integer.MIN_VALUE};
+
+	@Test
+	public void packedCoordinatesUnpackToThemselves(){
+		for(int x : EDGES){
+			for(int y : EDGES){
+				assertRoundTrip(x, y);
+			}
+		}
+		Random random = new Random(25);
+		for(int i = 0; i < 10000; i++){
+			assertRoundTrip(random.nextInt(), random.nextInt());
+		}
+	}
+
+	@Test
+	public void packedCoordinatesAreEqualExactlyWhenTheCoordinatesAre(){
+		assertNotEquals(Coordinate.pack(-1, 0), Coordinate.pack(0, -1));
+		assertNotEquals(Coordinate.pack(0, -1), Coordinate.pack(-1, -1));
+		assertNotEquals(Coordinate.pack(1, 0), Coordinate.pack(0, 1));
+		assertEquals(new Coordinate(-3, 7).pack(), Coordinate.pack(-3, 7));
+	}
+
+	@Test
+	public void hashIsObjectsHash(){
+		for(int x : EDGES){
+			for(int y : EDGES){
+				assertEquals(Objects.hash(x, y), new Coordinate(x, y).hashCode());
+			}
+		}
+	}
+
+	@Test
+	public void ringBufferKeepsNegativeTilesInOrder(){
+		TileRingBuffer buffer = new TileRingBuffer(2);
+		for(int i = -5; i < 5; i++){
+			buffer.add(i, -i * 3);
+		}
+		for(int i = -5; i < 5; i++){
+			assertEquals(i, buffer.headX());
+			assertEquals(-i * 3, buffer.headY());
+			buffer.removeHead();
+		}
+		assertEquals(0, buffer.size());
+	}
+
+	private static void assertRoundTrip(int x, int y){
+		long packed = Coordinate.pack(x, y);
+		assertEquals(x, Coordinate.unpackX(packed));
+		assertEquals(y, Coordinate.unpackY(packed));
+		assertEquals(new Coordinate(x, y), Coordinate.unpack(packed));
+	}
+}
@@ -0,0 +1,118 @@
+package world;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import tiles.MapTile;
+
+/**
+ * Compiles maps to the binary format and reads them back
+ */
+public class CompiledMapTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private static TileGridBuilder maze(){
+		MazeGenerator generator = new MazeGenerator(48, 40, 17);
+		generator.setTraps(0.2f, 1, 1, 1);
+		generator.setExitCount(3);
+		return generator.generateGrid();
+	}
+
+	@Test
+	public void readsBackWhatWasWritten() throws IOException {
+		TileGridBuilder grid = maze();
+		File file = folder.newFile("maze" + CompiledMap.EXTENSION);
+		CompiledMap.write(grid, file);
+		TileGridBuilder read = CompiledMap.readGrid(file);
+
+		assertEquals(grid.getWidth(), read.getWidth());
+		assertEquals(grid.getHeight(), read.getHeight());
+		assertEquals(grid.getStart(), read.getStart());
+		assertEquals(grid.getExits(), read.getExits());
+		assertTrue("The maze should have several exits", read.getExits().size() > 1);
+
+		boolean[] kinds = new boolean[MapTile.TYPE_GRASS + 1];
+		MapTile[] written = grid.getTiles();
+		MapTile[] tiles = read.getTiles();
+		for(int i = 0; i < written.length; i++){
+			if(written[i] == null){
+				assertSame("cell " + i, null, tiles[i]);
+				continue;
+			}
+			assertEquals("cell " + i, written[i].getType(), tiles[i].getType());
+			assertSame("cell " + i, written[i].getClass(), tiles[i].getClass());
+			kinds[written[i].getType()] = true;
+		}
+		assertTrue("The maze should have lava, mud and grass", kinds[MapTile.TYPE_LAVA] && kinds[MapTile.TYPE_MUD] && kinds[MapTile.TYPE_GRASS]);
+		assertTrue("The maze should have a start and exits", kinds[MapTile.TYPE_START] && kinds[MapTile.TYPE_EXIT]);
+	}
+
+	@Test
+	public void truncatedFileIsRejected() throws IOException {
+		byte[] bytes = compiled();
+		assertRejected(Arrays.copyOf(bytes, bytes.length - 1));
+		assertRejected(Arrays.copyOf(bytes, 20));
+	}
+
+	@Test
+	public void wrongMagicIsRejected() throws IOException {
+		byte[] bytes = compiled();
+		bytes[0] ^= 1;
+		assertRejected(bytes);
+	}
+
+	@Test
+	public void wrongVersionIsRejected() throws IOException {
+		byte[] bytes = compiled();
+		bytes[4] = CompiledMap.VERSION + 1;
+		assertRejected(bytes);
+	}
+
+	@Test
+	public void sizeLargerThanTheFileIsRejected() throws IOException {
+		byte[] bytes = compiled();
+		ByteBuffer.wrap(bytes).putInt(5, 65536).putInt(9, 65536);
+		assertRejected(bytes);
+		bytes = compiled();
+		ByteBuffer.wrap(bytes).putInt(5, 1000).putInt(9, 1000);
+		assertRejected(bytes);
+	}
+
+	@Test
+	public void cellOutsideThePaletteIsRejected() throws IOException {
+		byte[] bytes = compiled();
+		bytes[bytes.length - 1] = (byte) 0xFE;
+		assertRejected(bytes);
+	}
+
+	private byte[] compiled() throws IOException {
+		File file = folder.newFile();
+		CompiledMap.write(maze(), file);
+		return Files.readAllBytes(file.toPath());
+	}
+
+	private void assertRejected(byte[] bytes) throws IOException {
+		File file = folder.newFile();
+		Files.write(file.toPath(), bytes);
+		try {
+			CompiledMap.readGrid(file);
+			fail("A bad compiled map was read");
+		} catch (IOException e) {
+			// Expected
+		}
+	}
+}
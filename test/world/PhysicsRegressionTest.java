@@ -0,0 +1,86 @@
+package world;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Drives the car with random controls over roads, traps and walls and checks a hash of its
+ * state after every step against the hash the Vector2 physics gave, before the physics was
+ * made allocation free. Any change to the physics' arithmetic, however small, changes the hash.
+ */
+public class PhysicsRegressionTest {
+
+	private static final int STEPS = 200000;
+
+	private static final String[] MAP = {
+		"##############################",
+		"#............................#",
+		"#....LLL.........MMM.........#",
+		"#............................#",
+		"#...GGGG.......#######.......#",
+		"#............................#",
+		"#S...........................#",
+		"#............................#",
+		"##############################",
+	};
+
+	@Test
+	public void physicsMatchTheVectorPhysics(){
+		// From the Vector2 physics, with the same seeds and controls
+		assertEquals(4217202616949449985L, checksum(1, STEPS));
+		assertEquals(-1245681225206565488L, checksum(2, STEPS));
+		assertEquals(6369054787671641429L, checksum(3, STEPS));
+	}
+
+	/**
+	 * FNV-1a over the bits of the car's position, velocity, angle and health after each step.
+	 * The car starts again whenever its run ends.
+	 */
+	static long checksum(long seed, int steps){
+		Random random = new Random(seed);
+		float delta = 1 / 60f;
+		Car car = WorldBuilder.fromRows(MAP).build().getCar();
+		long hash = 0xCBF29CE484222325L;
+		for(int i = 0; i < steps; i++){
+			int controls = random.nextInt(10);
+			if(controls < 5){
+				car.applyForwardAcceleration();
+			} else if(controls < 6){
+				car.applyReverseAcceleration();
+			} else if(controls < 7){
+				car.brake();
+			}
+			int steering = random.nextInt(4);
+			if(steering == 0){
+				car.turnLeft(delta);
+			} else if(steering == 1){
+				car.turnRight(delta);
+			}
+			car.update(delta);
+
+			hash = mix(hash, Float.floatToRawIntBits(car.getX()));
+			hash = mix(hash, Float.floatToRawIntBits(car.getY()));
+			hash = mix(hash, Float.floatToRawIntBits(car.getRawVelocity().x));
+			hash = mix(hash, Float.floatToRawIntBits(car.getRawVelocity().y));
+			hash = mix(hash, Float.floatToRawIntBits(car.getAngle()));
+			hash = mix(hash, car.getHealth());
+
+			if(car.getStatus() != Car.Status.DRIVING){
+				hash = mix(hash, car.getStatus().ordinal());
+				car = WorldBuilder.fromRows(MAP).build().getCar();
+			}
+		}
+		return hash;
+	}
+
+	private static long mix(long hash, int value){
+		for(int i = 0; i < 4; i++){
+			hash = (hash ^ (value & 0xff)) * 0x100000001B3L;
+			value >>>= 8;
+		}
+		return hash;
+	}
+}
@@ -0,0 +1,92 @@
+package world;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.junit.Test;
+
+import com.swen30006.driving.HeadlessSimulation;
+import com.swen30006.driving.SimulationResult;
+
+import mycontroller.MyAIController;
+
+/**
+ * Records a controller's run and replays it from the log, which must end exactly where the run did
+ */
+public class ReplayTest {
+
+	private static final float TIME_LIMIT = 120;
+
+	private static final String[] MAP = {
+		"#..L...#....####.....#",
+		"#S.....#.......G.....#",
+		"#......#.............#",
+		"#..L...#....####.....#",
+		"#......#.......#..M..#",
+		"#..............#.....#",
+		"#####..######..#######",
+		"#......#.............#",
+		"#..G...#.....LL......#",
+		"#......#.............E",
+		"#..L...#....####.....#",
+	};
+
+	@Test
+	public void replayEndsWhereTheRunDid() throws IOException {
+		World recorded = WorldBuilder.fromRows(MAP).build();
+		recorded.setController(new MyAIController(recorded.getCar()));
+		ByteArrayOutputStream log = new ByteArrayOutputStream();
+		RunRecorder recorder = new RunRecorder(recorded, log);
+		recorded.setRecorder(recorder);
+		SimulationResult run;
+		try {
+			run = new HeadlessSimulation(recorded, HeadlessSimulation.DEFAULT_DELTA, TIME_LIMIT).run();
+		} finally {
+			recorder.close();
+		}
+		assertNotEquals("The run should end before the time limit", Car.Status.DRIVING, run.getStatus());
+
+		RunLogReader reader = new RunLogReader(new ByteArrayInputStream(log.toByteArray()));
+		World replayed = WorldBuilder.fromRows(MAP).carSize(reader.getCarWidth(), reader.getCarHeight()).build();
+		SimulationResult replay = HeadlessSimulation.replay(replayed, reader);
+
+		assertEquals(run.getStatus(), replay.getStatus());
+		assertEquals(run.getSimTime(), replay.getSimTime(), 0);
+		assertEquals(run.getTicks(), replay.getTicks());
+		assertEquals(run.getHealth(), replay.getHealth());
+		Car car = recorded.getCar();
+		Car replayedCar = replayed.getCar();
+		assertEquals(car.getX(), replayedCar.getX(), 0);
+		assertEquals(car.getY(), replayedCar.getY(), 0);
+		assertEquals(car.getHealth(), replayedCar.getHealth());
+	}
+
+	@Test
+	public void replayOnAChangedMapIsRejected() throws IOException {
+		World recorded = WorldBuilder.fromRows(MAP).build();
+		recorded.setController(new MyAIController(recorded.getCar()));
+		ByteArrayOutputStream log = new ByteArrayOutputStream();
+		RunRecorder recorder = new RunRecorder(recorded, log);
+		recorded.setRecorder(recorder);
+		try {
+			new HeadlessSimulation(recorded, HeadlessSimulation.DEFAULT_DELTA, 1).run();
+		} finally {
+			recorder.close();
+		}
+
+		// The same size of map, with one wall turned to road
+		RunLogReader reader = new RunLogReader(new ByteArrayInputStream(log.toByteArray()));
+		World changed = WorldBuilder.fromRows(MAP).road(7, 8).build();
+		try {
+			HeadlessSimulation.replay(changed, reader);
+			fail("A log recorded on another map was replayed");
+		} catch (IOException e) {
+			// The map's checksum doesn't match the log's
+		}
+	}
+}
@@ -0,0 +1,145 @@
+package world;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.junit.Test;
+
+import controller.CarController;
+import utilities.Coordinate;
+
+/**
+ * Checks how World.update splits frames into physics steps, spreads controller decisions over
+ * them and reports the tiles the car crosses
+ */
+public class SubSteppingTest {
+
+	/** Drives forward, optionally turning left, and counts its updates and the tiles entered */
+	private static class CountingController extends CarController {
+		private final boolean turning;
+		private int updates = 0;
+		private final ArrayList<Coordinate> entered = new ArrayList<Coordinate>();
+
+		CountingController(Car car, boolean turning){
+			super(car);
+			this.turning = turning;
+		}
+
+		@Override
+		public void tileEntered(int x, int y){
+			entered.add(new Coordinate(x, y));
+		}
+
+		@Override
+		public void update(float delta){
+			updates++;
+			applyForwardAcceleration();
+			if(turning){
+				turnLeft(delta);
+			}
+		}
+	}
+
+	private static World openWorld(){
+		return new WorldBuilder(60, 60).border().start(30, 30).build();
+	}
+
+	@Test
+	public void framesAreSplitIntoStepsOfAtMostMaxStep(){
+		World world = openWorld();
+		CountingController controller = new CountingController(world.getCar(), false);
+		world.setController(controller);
+
+		world.update(0.25f);
+		int steps = (int) Math.ceil(0.25f / World.DEFAULT_MAX_STEP);
+		assertEquals(steps, controller.updates);
+		assertEquals(0.25, world.getSimTime(), 1e-6);
+
+		world.setSubStepping(0.01f, 1);
+		world.update(0.25f);
+		assertEquals(steps + (int) Math.ceil(0.25f / 0.01f), controller.updates);
+	}
+
+	@Test
+	public void simTimeIsTheSumOfTheDeltas(){
+		World world = openWorld();
+		world.setController(new CountingController(world.getCar(), true));
+		Random random = new Random(16);
+		double total = 0;
+		for(int i = 0; i < 1000 && world.getCar().getStatus() == Car.Status.DRIVING; i++){
+			float delta = random.nextFloat() * 0.2f + 0.001f;
+			world.update(delta);
+			total += delta;
+		}
+		assertEquals(total, world.getSimTime(), total * 1e-6);
+	}
+
+	@Test
+	public void heldInputsRepeatTheDecisionExactly(){
+		World everyStep = openWorld();
+		everyStep.setController(new CountingController(everyStep.getCar(), true));
+		World everyThirdStep = openWorld();
+		CountingController decimated = new CountingController(everyThirdStep.getCar(), true);
+		everyThirdStep.setController(decimated);
+		everyThirdStep.setSubStepping(World.DEFAULT_MAX_STEP, 3);
+
+		for(int i = 0; i < 300; i++){
+			everyStep.update(1 / 60f);
+			everyThirdStep.update(1 / 60f);
+		}
+		assertEquals(100, decimated.updates);
+		assertEquals(everyStep.getCar().getX(), everyThirdStep.getCar().getX(), 0);
+		assertEquals(everyStep.getCar().getY(), everyThirdStep.getCar().getY(), 0);
+		assertEquals(everyStep.getCar().getAngle(), everyThirdStep.getCar().getAngle(), 0);
+	}
+
+	@Test
+	public void carCannotPassThroughAWallAtFullSpeed(){
+		World world = WorldBuilder.fromRows(
+				"##############################",
+				"#............................#",
+				"#S.......................#...#",
+				"#............................#",
+				"##############################").build();
+		world.setController(new CountingController(world.getCar(), false));
+		Car car = world.getCar();
+		float fastest = 0;
+		for(int i = 0; i < 100 && car.getStatus() == Car.Status.DRIVING; i++){
+			world.update(0.25f);
+			fastest = Math.max(fastest, car.getVelocity());
+			assertTrue("The car passed through the wall at x " + car.getX(), car.getX() < 25);
+		}
+		assertEquals(5f, fastest, 0.01f);
+		assertEquals(24, car.getTileX());
+	}
+
+	@Test
+	public void everyTileCrossedInABigStepIsEnteredInOrder(){
+		World world = openWorld();
+		CountingController controller = new CountingController(world.getCar(), false);
+		world.setController(controller);
+		// Up to full speed, then a step long enough to cross several tiles at once
+		for(int i = 0; i < 150; i++){
+			world.update(1 / 60f);
+		}
+		world.setSubStepping(Float.POSITIVE_INFINITY, 1);
+		int before = controller.entered.size();
+		int fromX = world.getCar().getTileX();
+		world.update(0.8f);
+		int toX = world.getCar().getTileX();
+		assertTrue("The step should cross several tiles", toX - fromX >= 3);
+		// Tiles entered are passed to the controller before its next decision
+		world.update(0.001f);
+
+		assertEquals(toX - fromX, controller.entered.size() - before);
+		Coordinate previous = new Coordinate(30, 30);
+		for(Coordinate tile : controller.entered){
+			assertEquals(previous + " then " + tile, 1, Math.abs(tile.x - previous.x) + Math.abs(tile.y - previous.y));
+			previous = tile;
+		}
+		assertEquals(new Coordinate(toX, world.getCar().getTileY()), previous);
+	}
+}
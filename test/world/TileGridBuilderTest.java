@@ -0,0 +1,122 @@
+package world;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+import tiles.MapTile;
+import utilities.Coordinate;
+
+/**
+ * Decodes layers of a map large enough to be decoded and merged in parallel, and checks the
+ * result against decoding the same layers one after another
+ */
+public class TileGridBuilderTest {
+
+	// Over the parallel threshold, and several merge bands tall
+	private static final int WIDTH = 600;
+	private static final int HEIGHT = 400;
+
+	private static final String[] TRAP_TYPES = {"LavaTrap", "MudTrap", "GrassTrap"};
+
+	/**
+	 * What a layer has at a cell: -1 for nothing, otherwise a variant of the layer's tile, the
+	 * trap type for traps and whether it's an exit or start for utilities. About a third of each
+	 * layer's cells are set, so the layers overlap.
+	 */
+	private static int cell(int layer, int x, int y){
+		int hash = (x * 73856093) ^ (y * 19349663) ^ (layer * 83492791);
+		hash ^= hash >>> 13;
+		hash *= 0x5bd1e995;
+		hash ^= hash >>> 15;
+		int draw = (hash >>> 1) % 300;
+		return draw < 100 ? draw % 3 : -1;
+	}
+
+	private static MapTile tileOf(TileGridBuilder grid, int layer, int variant){
+		String name = TileGridBuilder.LAYER_NAME[layer];
+		return grid.tileFor(name, TRAP_TYPES[variant], variant == 0);
+	}
+
+	private static boolean isStart(int layer, int variant){
+		return TileGridBuilder.LAYER_NAME[layer].equals("Utility") && variant == 1;
+	}
+
+	@Test
+	public void parallelDecodeMatchesSequentialDecode() throws IOException {
+		final TileGridBuilder grid = new TileGridBuilder(WIDTH, HEIGHT);
+		grid.decodeLayers(new TileGridBuilder.LayerDecoder(){
+			@Override
+			public void decode(TileGridBuilder.Layer layer){
+				int index = layerIndex(layer.getName());
+				// Row by row from the top, so the first start marked isn't the one that counts
+				for(int y = HEIGHT - 1; y >= 0; y--){
+					for(int x = WIDTH - 1; x >= 0; x--){
+						int variant = cell(index, x, y);
+						if(variant < 0){
+							continue;
+						}
+						layer.set(x, y, tileOf(grid, index, variant));
+						if(isStart(index, variant)){
+							layer.markStart(x, y);
+						}
+					}
+				}
+			}
+		});
+
+		// The same layers decoded one at a time, later layers overwriting earlier ones
+		MapTile[] expected = new MapTile[WIDTH * HEIGHT];
+		Coordinate start = null;
+		boolean[] overlaps = new boolean[TileGridBuilder.LAYER_NAME.length];
+		for(int layer = 0; layer < TileGridBuilder.LAYER_NAME.length; layer++){
+			for(int x = 0; x < WIDTH; x++){
+				for(int y = 0; y < HEIGHT; y++){
+					int variant = cell(layer, x, y);
+					if(variant < 0){
+						continue;
+					}
+					if(expected[x + y * WIDTH] != null){
+						overlaps[layer] = true;
+					}
+					expected[x + y * WIDTH] = tileOf(grid, layer, variant);
+					// Columns then rows, the first start found is the lowest column then row
+					if(start == null && isStart(layer, variant)){
+						start = new Coordinate(x, y);
+					}
+				}
+			}
+		}
+		for(int layer = 1; layer < overlaps.length; layer++){
+			assertTrue(TileGridBuilder.LAYER_NAME[layer] + " should cover earlier layers", overlaps[layer]);
+		}
+
+		MapTile[] tiles = grid.getTiles();
+		for(int i = 0; i < tiles.length; i++){
+			assertSame("cell " + (i % WIDTH) + "," + (i / WIDTH), expected[i], tiles[i]);
+		}
+		assertEquals(start, grid.getStart());
+
+		// Walls are the last layer, so a cell any wall is on is a wall
+		for(int x = 0; x < WIDTH; x++){
+			for(int y = 0; y < HEIGHT; y++){
+				if(cell(TileGridBuilder.LAYER_NAME.length - 1, x, y) >= 0){
+					assertEquals(MapTile.TYPE_WALL, tiles[x + y * WIDTH].getType());
+				}
+			}
+		}
+	}
+
+	private static int layerIndex(String name){
+		for(int i = 0; i < TileGridBuilder.LAYER_NAME.length; i++){
+			if(TileGridBuilder.LAYER_NAME[i].equals(name)){
+				return i;
+			}
+		}
+		throw new IllegalArgumentException(name);
+	}
+}
@@ -0,0 +1,207 @@
+package world;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.badlogic.gdx.math.Vector2;
+
+import tiles.MapTile;
+import utilities.Coordinate;
+import utilities.PeekTuple;
+
+/**
+ * Checks Car.peek, and the predictor behind it, against peek as it was written with Vector2s,
+ * from states the car gets into by driving at random
+ */
+public class TrajectoryPredictorTest {
+
+	private static final float MAX_SPEED = 5f;
+	private static final float ROTATING_FACTOR = 150f;
+	private static final float STEERING_ADJUST_FACTOR = 0.05f;
+	private static final float EPSILON = 0.01f;
+	private static final float TURN_EPSILON = 0.05f;
+	private static final float ACCELERATION = 2f;
+	private static final float MAX_DEGREES = 360;
+	private static final float FRICTION_FORCE = 0.5f;
+
+	private static final float[] DEGREES = {0, 90, 180, 270, 360, -90, 45};
+
+	@Test
+	public void peekMatchesTheVectorPeek(){
+		Random random = new Random(21);
+		TrajectoryPredictor.Prediction prediction = new TrajectoryPredictor.Prediction();
+		World world = world();
+		Car car = world.getCar();
+		for(int i = 0; i < 50000; i++){
+			drive(car, random);
+			if(car.getStatus() != Car.Status.DRIVING || car.getX() < 3 || car.getY() < 3 || car.getX() > 27 || car.getY() > 27){
+				world = world();
+				car = world.getCar();
+			}
+
+			Vector2 velocity = random.nextInt(4) == 0 ? new Vector2(car.getRawVelocity())
+					: new Vector2((random.nextFloat() - 0.5f) * 10, (random.nextFloat() - 0.5f) * 10);
+			float degree = DEGREES[random.nextInt(DEGREES.length)];
+			WorldSpatial.RelativeDirection turn = random.nextBoolean() ? WorldSpatial.RelativeDirection.LEFT : WorldSpatial.RelativeDirection.RIGHT;
+			float delta = random.nextBoolean() ? 1 / 60f : random.nextFloat() * 0.05f + 0.001f;
+
+			String context = "peek " + i;
+			PeekTuple expected = vectorPeek(car, world, velocity, degree, turn, delta);
+			PeekTuple actual = car.peek(new Vector2(velocity), degree, turn, delta);
+			assertEquals(context, expected.getCoordinate(), actual.getCoordinate());
+			assertEquals(context, expected.getReachable(), actual.getReachable());
+
+			car.getTrajectoryPredictor().predict(velocity.x, velocity.y, degree, turn, delta, prediction, null);
+			assertEquals(context, expected.getCoordinate(), new Coordinate(prediction.getEndX(), prediction.getEndY()));
+			assertEquals(context, expected.getReachable(), prediction.isReachable());
+		}
+	}
+
+	private static World world(){
+		return new WorldBuilder(30, 30).border().start(15, 15)
+				.walls(5, 5, 3, 10).walls(20, 8, 1, 12).trap(10, 10, "MudTrap")
+				.build();
+	}
+
+	// A step of the car with a random set of controls held
+	private static void drive(Car car, Random random){
+		float delta = 1 / 60f;
+		int controls = random.nextInt(8);
+		if(controls < 3){
+			car.applyForwardAcceleration();
+		} else if(controls == 3){
+			car.applyReverseAcceleration();
+		} else if(controls == 4){
+			car.brake();
+		}
+		int steering = random.nextInt(3);
+		if(steering == 1){
+			car.turnLeft(delta);
+		} else if(steering == 2){
+			car.turnRight(delta);
+		}
+		car.update(delta);
+	}
+
+	/**
+	 * Car.peek as it was before the predictor, with the car's state read through its getters
+	 */
+	private static PeekTuple vectorPeek(Car car, World world, Vector2 velocity, float degree, WorldSpatial.RelativeDirection turnDirection, float delta){
+		float rotation = car.getRawRotation();
+		float currentAngle = car.getTurnAngle();
+		float currentRotation = rotation;
+		boolean currentlyAccelerating = car.isAccelerating();
+		boolean currentlyReversing = car.isReversing();
+		float currentX = car.getX();
+		float currentY = car.getY();
+		Vector2 currentVelocity = new Vector2(velocity.x,velocity.y);
+		boolean currentlyForward = car.isMovingForward();
+		float timeDifference = Math.abs(rotation-degree) / (ROTATING_FACTOR * delta);
+
+		boolean reachable = true;
+
+		// Convert degree to the right orientation based on turning direction
+		// Going right are negative values while going left is positive.
+		if(turnDirection.equals(WorldSpatial.RelativeDirection.RIGHT) && degree > 0){
+			degree = 0 - degree;
+		}
+
+		if(turnDirection.equals(WorldSpatial.RelativeDirection.LEFT) && degree < 0){
+			degree = 360 - degree;
+		}
+
+		for(int i = 0; i < Math.round(timeDifference); i++){
+			if((currentRotation < degree && turnDirection.equals(WorldSpatial.RelativeDirection.LEFT) || (currentRotation > degree && turnDirection.equals(WorldSpatial.RelativeDirection.RIGHT)))){
+				// Calculate Right turns
+				if(turnDirection.equals(WorldSpatial.RelativeDirection.RIGHT)){
+					currentAngle -= ROTATING_FACTOR * delta;
+					if(currentlyReversing){
+						currentAngle *= -1;
+					}
+				}
+				// Calculate Left turns
+				else{
+					currentAngle += ROTATING_FACTOR * delta;
+					if(currentlyReversing){
+						currentAngle *= -1;
+					}
+				}
+			}
+
+			if(currentVelocity.len() > EPSILON) {
+				// Update our rotation
+				currentRotation += currentAngle;
+				// Slowly return our rotation to 0 if not turning
+				if(currentAngle > TURN_EPSILON || currentAngle < TURN_EPSILON ){
+					// Slowly update turnings
+					int sign = currentAngle > 0 ? 1 : -1;
+					float magnitude = Math.abs(currentAngle) - Math.abs(currentAngle)*STEERING_ADJUST_FACTOR;
+					currentAngle = magnitude * sign;
+				} else {
+					currentAngle = 0;
+				}
+			}
+
+			// Create an acceleration vector by rotating a unit vector
+			// and scaling with the appropriate force
+			Vector2 acceleration = new Vector2(1,0);
+			acceleration.rotate(currentRotation);
+			acceleration.scl(ACCELERATION);
+
+			// Create a friction vector
+			Vector2 friction = new Vector2(1,0);
+			if(acceleration.len() > 0){
+				// Rotate to face the other direction
+				friction.rotate(acceleration.angle() - MAX_DEGREES/2);
+			} else {
+				// Apply friction in the opposite direction that we are facing
+				friction.rotate((currentRotation - MAX_DEGREES/2) % MAX_DEGREES);
+			}
+			friction.scl(FRICTION_FORCE);
+
+			// Calculate net change
+			Vector2 netAcceleration = acceleration.add(friction);
+
+			// Calculating the movement
+			// Rotate our velocity (highly simplified effect of rotating the car) and update with acceleration
+			currentVelocity.setAngle(currentRotation);
+			if((!currentlyForward && currentlyAccelerating) || (currentlyForward && currentlyReversing)){
+				currentVelocity.x -= netAcceleration.x * delta;
+				currentVelocity.y -= netAcceleration.y * delta;
+			}
+			else{
+				currentVelocity.x += netAcceleration.x * delta;
+				currentVelocity.y += netAcceleration.y * delta;
+			}
+
+			// If we get greater than max velocity then limit us to that, if we're smaller than epsilon stop
+			if(currentVelocity.len() > MAX_SPEED ) {
+				float scalar = currentVelocity.len() / MAX_SPEED;
+				currentVelocity.scl(1/scalar);
+			}
+			else if (currentVelocity.len() < EPSILON){
+				currentVelocity.x = 0;
+				currentVelocity.y = 0;
+				currentlyForward = !currentlyForward;
+			}
+
+			if(!currentlyForward){
+				currentVelocity.rotate(180);
+			}
+
+			currentX += currentVelocity.x * delta;
+			currentY += currentVelocity.y * delta;
+
+			// Check if you will hit a wall
+			if(world.lookUp(currentX, currentY).getType() == MapTile.TYPE_WALL){
+				reachable = false;
+			}
+			currentAngle = 0;
+		}
+
+		return new PeekTuple(new Coordinate(Math.round(currentX), Math.round(currentY)),reachable);
+	}
+}